@@ -0,0 +1,127 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.GsonBuilder;
+import com.tyro.oss.pact.spring.pact.model.Pact;
+import com.tyro.oss.pact.spring.util.GsonStringConverter;
+import com.tyro.oss.pact.spring.util.JacksonStringConverter;
+import com.tyro.oss.pact.spring.util.ObjectStringConverter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+
+/**
+ * Generates pacts of a given shape for the benchmarks. Generation is deterministic, so every fork measures the same pact.
+ */
+public final class SyntheticPacts {
+
+    public static final String GSON = "gson";
+    public static final String JACKSON = "jackson";
+
+    public static final String BODY_SCHEMA = "{\"type\":\"object\",\"required\":[\"id\",\"name\",\"items\"],\"properties\":{"
+            + "\"id\":{\"type\":\"integer\"},"
+            + "\"name\":{\"type\":\"string\"},"
+            + "\"items\":{\"type\":\"array\",\"items\":{\"type\":\"object\",\"required\":[\"index\",\"title\",\"read\"],\"properties\":{"
+            + "\"index\":{\"type\":\"integer\"},"
+            + "\"title\":{\"type\":\"string\"},"
+            + "\"read\":{\"type\":\"boolean\"},"
+            + "\"tags\":{\"type\":\"array\",\"items\":{\"type\":\"string\"}}}}}}}";
+
+    private SyntheticPacts() {
+    }
+
+    public static ObjectStringConverter converter(String name) {
+        switch (name) {
+            case GSON:
+                return new GsonStringConverter(new GsonBuilder().create());
+            case JACKSON:
+                return new JacksonStringConverter(new ObjectMapper());
+            default:
+                throw new IllegalArgumentException("Unknown converter " + name);
+        }
+    }
+
+    /**
+     * @param workflows               The number of workflows in the pact
+     * @param interactionsPerWorkflow The number of interactions in each workflow
+     * @param bodySize                The approximate length of each response body in characters
+     * @param distinctWorkflows       The number of workflows with different content. The rest duplicate one of these
+     */
+    public static Pact pact(int workflows, int interactionsPerWorkflow, int bodySize, int distinctWorkflows, ObjectStringConverter jsonConverter) {
+        Pact pact = Pact.newPact(jsonConverter);
+        for (int workflowIndex = 0; workflowIndex < workflows; workflowIndex++) {
+            int content = workflowIndex % distinctWorkflows;
+            Pact.Workflow workflow = pact.getWorkflow("workflow-" + workflowIndex,
+                    singletonList(new Pact.ProviderState("book " + content, jsonConverter, content)));
+            for (int interactionIndex = 0; interactionIndex < interactionsPerWorkflow; interactionIndex++) {
+                workflow.addInteraction(interaction(content, interactionIndex, bodySize, jsonConverter));
+            }
+        }
+        return pact;
+    }
+
+    public static Pact.Interaction interaction(int content, int interactionIndex, int bodySize, ObjectStringConverter jsonConverter) {
+        HttpHeaders requestHeaders = new HttpHeaders();
+        requestHeaders.setAccept(singletonList(MediaType.APPLICATION_JSON));
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.setContentType(MediaType.APPLICATION_JSON);
+        return new Pact.Interaction(
+                new Pact.InteractionRequest(HttpMethod.GET, "/books/" + content + "/pages/" + interactionIndex, requestHeaders, null),
+                new Pact.InteractionResponse(200, responseHeaders, body(content * 31 + interactionIndex, bodySize, jsonConverter), null),
+                jsonConverter);
+    }
+
+    public static String body(int seed, int bodySize, ObjectStringConverter jsonConverter) {
+        return jsonConverter.fromObject(bodyObject(seed, bodySize));
+    }
+
+    /**
+     * A JSON object matching {@link #BODY_SCHEMA} whose serialised form is roughly bodySize characters long.
+     */
+    public static Map<String, Object> bodyObject(int seed, int bodySize) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("id", seed);
+        body.put("name", "book-" + seed);
+        List<Map<String, Object>> items = new ArrayList<>();
+        body.put("items", items);
+
+        int length = 40;
+        for (int index = 0; length < bodySize; index++) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("index", index);
+            item.put("title", "Chapter " + index + " of book " + seed);
+            item.put("read", (seed + index) % 3 == 0);
+            item.put("tags", asList("tag-" + (index % 7), "tag-" + (seed % 11)));
+            items.add(item);
+            length += 90;
+        }
+        return body;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.consumer;
+
+import com.tyro.oss.pact.rest.RestRequestDescriptor;
+import com.tyro.oss.pact.spring.pact.SyntheticPacts;
+import com.tyro.oss.pact.spring.util.ObjectStringConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Recording throughput of {@link ReturnExpect}: setting up expectations, serialising their bodies and recording the
+ * interactions, then making the requests. The pact file is written and removed after each invocation, outside the measurement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RecordingBenchmark {
+
+    private static final int INTERACTIONS = 100;
+
+    @Param({SyntheticPacts.GSON, SyntheticPacts.JACKSON})
+    private String converter;
+
+    @Param({"256", "4096"})
+    private int bodySize;
+
+    private ObjectStringConverter objectConverter;
+
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    private final List<Map<String, Object>> bodies = new ArrayList<>();
+
+    private File pactFile;
+
+    private TuPactRecordingServer server;
+
+    @Setup(Level.Trial)
+    public void createBodies() throws IOException {
+        objectConverter = SyntheticPacts.converter(converter);
+        for (int i = 0; i < INTERACTIONS; i++) {
+            bodies.add(SyntheticPacts.bodyObject(i, bodySize));
+        }
+        pactFile = Files.createTempFile("benchmark", ".json").toFile();
+        Files.delete(pactFile.toPath());
+    }
+
+    @TearDown(Level.Invocation)
+    public void writePactFile() throws IOException {
+        server.close();
+        Files.deleteIfExists(pactFile.toPath());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INTERACTIONS)
+    @SuppressWarnings("unchecked")
+    public void record() {
+        server = TuPactRecordingServer.createServer(restTemplate, pactFile, objectConverter);
+        server.startWorkflow("workflow");
+        for (int i = 0; i < INTERACTIONS; i++) {
+            server.expect(new RestRequestDescriptor<>("/books/" + i, HttpMethod.GET, null, Map.class)).andReturn(bodies.get(i));
+        }
+        for (int i = 0; i < INTERACTIONS; i++) {
+            restTemplate.getForObject("/books/" + i, String.class);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.model;
+
+import com.tyro.oss.pact.spring.pact.SyntheticPacts;
+import com.tyro.oss.pact.spring.util.ObjectStringConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+/**
+ * Parsing a pact from a string, from a stream, and lazily from a stream as the provider does. Run with -prof gc to see the
+ * allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PactParseBenchmark {
+
+    @Param({"10", "100"})
+    private int workflows;
+
+    @Param("10")
+    private int interactionsPerWorkflow;
+
+    @Param({"256", "4096"})
+    private int bodySize;
+
+    // Only Gson is measured. Jackson fails every case here with "no Creators": a plain ObjectMapper cannot construct a Pact,
+    // which the eager parses need, or a ProviderState, which the lazy parse reads for each workflow. Jackson is measured
+    // writing pacts in PactSerialisationBenchmark instead.
+    private final ObjectStringConverter jsonConverter = SyntheticPacts.converter(SyntheticPacts.GSON);
+
+    private String json;
+
+    private byte[] bytes;
+
+    @Setup
+    public void createPact() {
+        json = jsonConverter.fromObject(SyntheticPacts.pact(workflows, interactionsPerWorkflow, bodySize, workflows, jsonConverter));
+        bytes = json.getBytes(UTF_8);
+    }
+
+    @Benchmark
+    public Pact parseString() {
+        return Pact.parse(json, jsonConverter);
+    }
+
+    @Benchmark
+    public Pact parseStream() {
+        return Pact.parse(new ByteArrayInputStream(bytes), jsonConverter);
+    }
+
+    @Benchmark
+    public Pact parseStreamLazily() {
+        return Pact.parseLazily(new ByteArrayInputStream(bytes), jsonConverter);
+    }
+}
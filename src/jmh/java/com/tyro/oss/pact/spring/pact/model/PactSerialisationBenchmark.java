@@ -0,0 +1,95 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.model;
+
+import com.tyro.oss.pact.spring.pact.SyntheticPacts;
+import com.tyro.oss.pact.spring.util.ObjectStringConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+/**
+ * Serialising a pact with either converter, as the consumer does when it writes the pact file. Run with -prof gc to see the
+ * allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PactSerialisationBenchmark {
+
+    @Param({SyntheticPacts.GSON, SyntheticPacts.JACKSON})
+    private String converter;
+
+    @Param({"10", "100"})
+    private int workflows;
+
+    @Param("10")
+    private int interactionsPerWorkflow;
+
+    @Param({"256", "4096"})
+    private int bodySize;
+
+    private ObjectStringConverter jsonConverter;
+
+    private Pact pact;
+
+    private File pactFile;
+
+    @Setup
+    public void createPact() throws IOException {
+        jsonConverter = SyntheticPacts.converter(converter);
+        pact = SyntheticPacts.pact(workflows, interactionsPerWorkflow, bodySize, workflows, jsonConverter);
+        pactFile = Files.createTempFile("benchmark", ".json").toFile();
+    }
+
+    @TearDown
+    public void deletePactFile() throws IOException {
+        Files.deleteIfExists(pactFile.toPath());
+    }
+
+    @Benchmark
+    public String serialise() {
+        return jsonConverter.fromObject(pact);
+    }
+
+    @Benchmark
+    public File writePact() throws IOException {
+        Pact.writePact(pact, pactFile, jsonConverter);
+        return pactFile;
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.provider;
+
+import com.tyro.oss.pact.spring.pact.SyntheticPacts;
+import com.tyro.oss.pact.spring.pact.model.Pact;
+import com.tyro.oss.pact.spring.util.ObjectStringConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.ResultHandler;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.web.servlet.FlashMap;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Throughput of comparing a provider's response body with the pact, for each of the JSON body matchers. Both bodies are
+ * serialised by either converter, as a consumer records them and a provider writes them. The actual body has its keys and
+ * array elements in a different order from the expected body, as a real provider's often do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ResponseBodyMatchingBenchmark {
+
+    @Param({SyntheticPacts.GSON, SyntheticPacts.JACKSON})
+    private String converter;
+
+    @Param({"256", "4096", "65536"})
+    private int bodySize;
+
+    private Pact.InteractionResponse expectedBody;
+
+    private Pact.InteractionResponse expectedSchema;
+
+    private ResultActions actualResponse;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void createBodies() throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        ObjectStringConverter jsonConverter = SyntheticPacts.converter(converter);
+        expectedBody = new Pact.InteractionResponse(200, headers, SyntheticPacts.body(7, bodySize, jsonConverter), null);
+        expectedSchema = new Pact.InteractionResponse(200, headers, null, SyntheticPacts.BODY_SCHEMA);
+
+        Map<String, Object> reordered = SyntheticPacts.bodyObject(7, bodySize);
+        Collections.reverse((List<Object>) reordered.get("items"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write(jsonConverter.fromObject(reordered));
+        actualResponse = new FixedResultActions(new FixedMvcResult(response));
+    }
+
+    @Benchmark
+    public ResultActions jsonAssertBody() throws Exception {
+        new JsonResponseBodyMatcher().assertContent(actualResponse, expectedBody);
+        return actualResponse;
+    }
+
+    @Benchmark
+    public ResultActions structuralBody() throws Exception {
+        new StructuralJsonResponseBodyMatcher().assertContent(actualResponse, expectedBody);
+        return actualResponse;
+    }
+
+    @Benchmark
+    public ResultActions schema() throws Exception {
+        new JsonResponseBodyMatcher().assertContent(actualResponse, expectedSchema);
+        return actualResponse;
+    }
+
+    private static class FixedResultActions implements ResultActions {
+
+        private final MvcResult result;
+
+        FixedResultActions(MvcResult result) {
+            this.result = result;
+        }
+
+        @Override
+        public ResultActions andExpect(ResultMatcher matcher) throws Exception {
+            matcher.match(result);
+            return this;
+        }
+
+        @Override
+        public ResultActions andDo(ResultHandler handler) throws Exception {
+            handler.handle(result);
+            return this;
+        }
+
+        @Override
+        public MvcResult andReturn() {
+            return result;
+        }
+    }
+
+    private static class FixedMvcResult implements MvcResult {
+
+        private final MockHttpServletRequest request = new MockHttpServletRequest();
+        private final MockHttpServletResponse response;
+
+        FixedMvcResult(MockHttpServletResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public MockHttpServletRequest getRequest() {
+            return request;
+        }
+
+        @Override
+        public MockHttpServletResponse getResponse() {
+            return response;
+        }
+
+        @Override
+        public Object getHandler() {
+            return null;
+        }
+
+        @Override
+        public HandlerInterceptor[] getInterceptors() {
+            return null;
+        }
+
+        @Override
+        public ModelAndView getModelAndView() {
+            return null;
+        }
+
+        @Override
+        public Exception getResolvedException() {
+            return null;
+        }
+
+        @Override
+        public FlashMap getFlashMap() {
+            return new FlashMap();
+        }
+
+        @Override
+        public Object getAsyncResult() {
+            return null;
+        }
+
+        @Override
+        public Object getAsyncResult(long timeToWait) {
+            return null;
+        }
+    }
+}
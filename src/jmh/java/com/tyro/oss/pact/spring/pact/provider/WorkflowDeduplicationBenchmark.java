@@ -0,0 +1,139 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.provider;
+
+import com.tyro.oss.pact.spring.pact.SyntheticPacts;
+import com.tyro.oss.pact.spring.pact.model.Pact;
+import com.tyro.oss.pact.spring.util.ObjectStringConverter;
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Compares the original reflective, linear-scan de-duplication of workflows with the fingerprint index used by
+ * {@link PactTestTemplateInvocationContextProvider}. Each invocation works on a freshly parsed pact so that cached
+ * hash codes from a previous invocation do not flatter the indexed variant.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class WorkflowDeduplicationBenchmark {
+
+    @Param("10000")
+    private int interactions;
+
+    @Param("10")
+    private int interactionsPerWorkflow;
+
+    @Param("256")
+    private int bodySize;
+
+    private final ObjectStringConverter jsonConverter = SyntheticPacts.converter(SyntheticPacts.GSON);
+
+    private String serialisedPact;
+
+    private List<Pact.Workflow> workflows;
+
+    @Setup(Level.Trial)
+    public void createPact() {
+        int workflows = interactions / interactionsPerWorkflow;
+        serialisedPact = jsonConverter.fromObject(SyntheticPacts.pact(workflows, interactionsPerWorkflow, bodySize, workflows / 2, jsonConverter));
+    }
+
+    @Setup(Level.Invocation)
+    public void parsePact() {
+        workflows = new ArrayList<>(Pact.parse(serialisedPact, jsonConverter).getWorkFlows().values());
+    }
+
+    @Benchmark
+    public List<Pact.Workflow> reflectiveLinearScan() {
+        List<Pact.Workflow> uniqueWorkflows = new ArrayList<>();
+        for (Pact.Workflow workflow : workflows) {
+            if (uniqueWorkflows.stream().noneMatch(existingWorkflow -> reflectionEquals(existingWorkflow, workflow))) {
+                uniqueWorkflows.add(workflow);
+            }
+        }
+        return uniqueWorkflows;
+    }
+
+    @Benchmark
+    public List<Pact.Workflow> fingerprintIndex() {
+        List<Pact.Workflow> uniqueWorkflows = new ArrayList<>();
+        Map<WorkflowFingerprint, Pact.Workflow> workflowsByFingerprint = new HashMap<>();
+        for (Pact.Workflow workflow : workflows) {
+            if (workflowsByFingerprint.putIfAbsent(new WorkflowFingerprint(workflow), workflow) == null) {
+                uniqueWorkflows.add(workflow);
+            }
+        }
+        return uniqueWorkflows;
+    }
+
+    private static boolean reflectionEquals(Pact.Workflow first, Pact.Workflow second) {
+        if (!reflectionEquals(first.getProviderStates(), second.getProviderStates())) {
+            return false;
+        }
+        List<Pact.Interaction> firstInteractions = first.getInteractions();
+        List<Pact.Interaction> secondInteractions = second.getInteractions();
+        if (firstInteractions.size() != secondInteractions.size()) {
+            return false;
+        }
+        for (int i = 0; i < firstInteractions.size(); i++) {
+            Pact.Interaction firstInteraction = firstInteractions.get(i);
+            Pact.Interaction secondInteraction = secondInteractions.get(i);
+            if (!EqualsBuilder.reflectionEquals(firstInteraction.getRequest(), secondInteraction.getRequest())
+                    || !EqualsBuilder.reflectionEquals(firstInteraction.getResponse(), secondInteraction.getResponse())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean reflectionEquals(List<Pact.ProviderState> first, List<Pact.ProviderState> second) {
+        if (first.size() != second.size()) {
+            return false;
+        }
+        for (int i = 0; i < first.size(); i++) {
+            if (!EqualsBuilder.reflectionEquals(first.get(i), second.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.stub;
+
+import com.tyro.oss.pact.spring.pact.SyntheticPacts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Collections;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Requests per second a {@link PactStubServer} serves to clients that each keep one connection alive, over 1000 recorded routes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@Threads(4)
+public class PactStubServerBenchmark {
+
+    private static final int WORKFLOWS = 100;
+    private static final int INTERACTIONS_PER_WORKFLOW = 10;
+
+    @State(Scope.Benchmark)
+    public static class Server {
+
+        @Param({"256", "4096"})
+        private int bodySize;
+
+        private PactStubServer server;
+
+        @Setup(Level.Trial)
+        public void start() {
+            server = PactStubServer.start(0, Collections.singletonList(
+                    SyntheticPacts.pact(WORKFLOWS, INTERACTIONS_PER_WORKFLOW, bodySize, WORKFLOWS, SyntheticPacts.converter(SyntheticPacts.GSON))));
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            server.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        private Socket socket;
+        private OutputStream out;
+        private InputStream in;
+        private byte[][] requests;
+        private byte[] body = new byte[0];
+        private int next;
+
+        @Setup(Level.Trial)
+        public void connect(Server server) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), server.server.getPort());
+            socket.setTcpNoDelay(true);
+            out = new BufferedOutputStream(socket.getOutputStream());
+            in = new BufferedInputStream(socket.getInputStream());
+
+            requests = new byte[WORKFLOWS * INTERACTIONS_PER_WORKFLOW][];
+            for (int i = 0; i < requests.length; i++) {
+                String request = "GET /books/" + i / INTERACTIONS_PER_WORKFLOW + "/pages/" + i % INTERACTIONS_PER_WORKFLOW + " HTTP/1.1\r\n"
+                        + "Host: localhost\r\nAccept: application/json\r\n\r\n";
+                requests[i] = request.getBytes(ISO_8859_1);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void disconnect() throws IOException {
+            socket.close();
+        }
+
+        private byte[] exchange() throws IOException {
+            out.write(requests[next]);
+            out.flush();
+            next = (next + 1) % requests.length;
+            return readResponse();
+        }
+
+        private byte[] readResponse() throws IOException {
+            StringBuilder head = new StringBuilder();
+            int lineEnds = 0;
+            while (lineEnds < 4) {
+                int b = in.read();
+                if (b < 0) {
+                    throw new IOException("Connection closed by the stub server");
+                }
+                head.append((char) b);
+                lineEnds = b == '\r' || b == '\n' ? lineEnds + 1 : 0;
+            }
+            String headers = head.toString();
+            int header = headers.indexOf("Content-Length: ");
+            int contentLength = Integer.parseInt(headers.substring(header + 16, headers.indexOf('\r', header)));
+            if (body.length < contentLength) {
+                body = new byte[contentLength];
+            }
+            int read = 0;
+            while (read < contentLength) {
+                read += in.read(body, read, contentLength - read);
+            }
+            return body;
+        }
+    }
+
+    @Benchmark
+    public byte[] serveRecordedResponse(Client client) throws IOException {
+        return client.exchange();
+    }
+}
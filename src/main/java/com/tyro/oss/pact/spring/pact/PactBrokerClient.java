@@ -0,0 +1,128 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+public class PactBrokerClient implements AutoCloseable {
+
+    private static final long IDLE_CONNECTION_TIMEOUT_SECONDS = 30;
+
+    private static volatile PactBrokerClient instance;
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final RestTemplate restTemplate;
+
+    public PactBrokerClient(PactBrokerUrlSource pactBrokerUrlSource) {
+        connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(pactBrokerUrlSource.getHttpMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(pactBrokerUrlSource.getHttpMaxConnectionsPerRoute());
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(pactBrokerUrlSource.getHttpConnectTimeoutMillis())
+                .setConnectionRequestTimeout(pactBrokerUrlSource.getHttpConnectTimeoutMillis())
+                .setSocketTimeout(pactBrokerUrlSource.getHttpReadTimeoutMillis())
+                .build();
+
+        httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictIdleConnections(IDLE_CONNECTION_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .evictExpiredConnections()
+                .build();
+
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        requestFactory.setBufferRequestBody(false);
+        restTemplate = new RestTemplate(requestFactory);
+        if (pactBrokerUrlSource.isHttpGzipRequests()) {
+            restTemplate.getInterceptors().add(new GzipRequestInterceptor());
+        }
+    }
+
+    /**
+     * The client shared by every pact download and publish in this JVM, configured from pact-broker.properties or system properties
+     * when it is first used.
+     */
+    public static PactBrokerClient getInstance() {
+        PactBrokerClient client = instance;
+        if (client == null) {
+            synchronized (PactBrokerClient.class) {
+                client = instance;
+                if (client == null) {
+                    client = new PactBrokerClient(new PactBrokerUrlSource());
+                    Runtime.getRuntime().addShutdownHook(new Thread(client::close, "pact-broker-client-shutdown"));
+                    instance = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    /**
+     * A RestTemplate backed by a pool of keep-alive connections. It is thread safe and should be shared rather than recreated per request.
+     */
+    public RestTemplate getRestTemplate() {
+        return restTemplate;
+    }
+
+    @Override
+    public void close() {
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            connectionManager.shutdown();
+        }
+    }
+
+    private static class GzipRequestInterceptor implements ClientHttpRequestInterceptor {
+
+        @Override
+        public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+            if (body.length == 0) {
+                return execution.execute(request, body);
+            }
+
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(body);
+            }
+            byte[] compressedBody = compressed.toByteArray();
+            request.getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            request.getHeaders().setContentLength(compressedBody.length);
+            return execution.execute(request, compressedBody);
+        }
+    }
+}
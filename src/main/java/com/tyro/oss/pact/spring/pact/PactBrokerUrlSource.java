@@ -22,6 +22,7 @@ package com.tyro.oss.pact.spring.pact;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Properties;
@@ -33,6 +34,30 @@ public class PactBrokerUrlSource {
     public static final String PACT_BROKER_PROPERTIES_FILE = "pact-broker.properties";
     public static final String PACT_BROKER_PUBLISH_URL_PROPERTY = "pact.broker.publish.url";
     public static final String PACT_BROKER_DOWNLOAD_URLS_PROPERTY = "pact.broker.download.urls";
+    public static final String PACT_BROKER_DOWNLOAD_THREADS_PROPERTY = "pact.broker.download.threads";
+    public static final String PACT_BROKER_DOWNLOAD_RACE_PROPERTY = "pact.broker.download.race";
+    public static final String PACT_BROKER_CACHE_ENABLED_PROPERTY = "pact.broker.cache.enabled";
+    public static final String PACT_BROKER_CACHE_DIR_PROPERTY = "pact.broker.cache.dir";
+    public static final String PACT_BROKER_OFFLINE_PROPERTY = "pact.broker.offline";
+    public static final String PACT_BROKER_PUBLISH_THREADS_PROPERTY = "pact.broker.publish.threads";
+    public static final String PACT_BROKER_PUBLISH_ATTEMPTS_PROPERTY = "pact.broker.publish.attempts";
+    public static final String PACT_BROKER_PUBLISH_BACKOFF_PROPERTY = "pact.broker.publish.backoff.millis";
+    public static final String PACT_BROKER_PUBLISH_MANIFEST_PROPERTY = "pact.broker.publish.manifest";
+    public static final String PACT_BROKER_PUBLISH_FORCE_PROPERTY = "pact.broker.publish.force";
+    public static final String PACT_BROKER_HTTP_MAX_CONNECTIONS_PROPERTY = "pact.broker.http.max.connections";
+    public static final String PACT_BROKER_HTTP_MAX_CONNECTIONS_PER_ROUTE_PROPERTY = "pact.broker.http.max.connections.per.route";
+    public static final String PACT_BROKER_HTTP_CONNECT_TIMEOUT_PROPERTY = "pact.broker.http.connect.timeout.millis";
+    public static final String PACT_BROKER_HTTP_READ_TIMEOUT_PROPERTY = "pact.broker.http.read.timeout.millis";
+    public static final String PACT_BROKER_HTTP_GZIP_REQUESTS_PROPERTY = "pact.broker.http.gzip.requests";
+
+    public static final int DEFAULT_DOWNLOAD_THREADS = 4;
+    public static final String DEFAULT_CACHE_DIR = "target/pact-cache";
+    public static final int DEFAULT_PUBLISH_THREADS = 4;
+    public static final int DEFAULT_PUBLISH_ATTEMPTS = 3;
+    public static final int DEFAULT_PUBLISH_BACKOFF_MILLIS = 500;
+    public static final int DEFAULT_MAX_CONNECTIONS = 20;
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 10;
+    public static final int DEFAULT_TIMEOUT_MILLIS = 5000;
 
     private Properties properties = new Properties();
 
@@ -56,13 +81,108 @@ public class PactBrokerUrlSource {
         return getProperty(PACT_BROKER_DOWNLOAD_URLS_PROPERTY, "pact download URLs").split(",");
     }
 
+    public int getDownloadThreads() {
+        return getIntProperty(PACT_BROKER_DOWNLOAD_THREADS_PROPERTY, DEFAULT_DOWNLOAD_THREADS);
+    }
+
+    /**
+     * Whether a pact should be requested from every download URL at once, taking the first successful response, rather than
+     * trying the brokers one after another.
+     */
+    public boolean isRaceDownloadUrls() {
+        return Boolean.parseBoolean(getPropertyOrDefault(PACT_BROKER_DOWNLOAD_RACE_PROPERTY, "false").trim());
+    }
+
+    public int getPublishThreads() {
+        return getIntProperty(PACT_BROKER_PUBLISH_THREADS_PROPERTY, DEFAULT_PUBLISH_THREADS);
+    }
+
+    /**
+     * How many times a pact file is sent before giving up, when the broker cannot be reached or answers with a 5xx or 429 status.
+     */
+    public int getPublishAttempts() {
+        return getIntProperty(PACT_BROKER_PUBLISH_ATTEMPTS_PROPERTY, DEFAULT_PUBLISH_ATTEMPTS);
+    }
+
+    /**
+     * The delay before the first retry of a publish. It doubles for each further attempt.
+     */
+    public int getPublishBackoffMillis() {
+        return getIntProperty(PACT_BROKER_PUBLISH_BACKOFF_PROPERTY, DEFAULT_PUBLISH_BACKOFF_MILLIS);
+    }
+
+    /**
+     * The file recording a digest of each pact last published, used to skip publishing pacts that have not changed.
+     */
+    public File getPublishManifest() {
+        String defaultManifest = System.getProperty("user.home") + File.separator + ".pact" + File.separator + "published-digests.properties";
+        return new File(getPropertyOrDefault(PACT_BROKER_PUBLISH_MANIFEST_PROPERTY, defaultManifest).trim());
+    }
+
+    public boolean isPublishForced() {
+        return Boolean.parseBoolean(getPropertyOrDefault(PACT_BROKER_PUBLISH_FORCE_PROPERTY, "false").trim());
+    }
+
+    public boolean isCacheEnabled() {
+        return Boolean.parseBoolean(getPropertyOrDefault(PACT_BROKER_CACHE_ENABLED_PROPERTY, "true").trim());
+    }
+
+    public File getCacheDirectory() {
+        return new File(getPropertyOrDefault(PACT_BROKER_CACHE_DIR_PROPERTY, DEFAULT_CACHE_DIR).trim());
+    }
+
+    /**
+     * Whether pacts must be served from the local cache only, failing instead of contacting a broker.
+     */
+    public boolean isOffline() {
+        return Boolean.parseBoolean(getPropertyOrDefault(PACT_BROKER_OFFLINE_PROPERTY, "false").trim());
+    }
+
+    public int getHttpMaxConnections() {
+        return getIntProperty(PACT_BROKER_HTTP_MAX_CONNECTIONS_PROPERTY, DEFAULT_MAX_CONNECTIONS);
+    }
+
+    public int getHttpMaxConnectionsPerRoute() {
+        return getIntProperty(PACT_BROKER_HTTP_MAX_CONNECTIONS_PER_ROUTE_PROPERTY, DEFAULT_MAX_CONNECTIONS_PER_ROUTE);
+    }
+
+    public int getHttpConnectTimeoutMillis() {
+        return getIntProperty(PACT_BROKER_HTTP_CONNECT_TIMEOUT_PROPERTY, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    public int getHttpReadTimeoutMillis() {
+        return getIntProperty(PACT_BROKER_HTTP_READ_TIMEOUT_PROPERTY, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Whether request bodies sent to the broker, such as published pacts, are gzip compressed. Responses are always
+     * accepted compressed.
+     */
+    public boolean isHttpGzipRequests() {
+        return Boolean.parseBoolean(getPropertyOrDefault(PACT_BROKER_HTTP_GZIP_REQUESTS_PROPERTY, "false").trim());
+    }
+
+    private int getIntProperty(String property, int defaultValue) {
+        return Integer.parseInt(getPropertyOrDefault(property, String.valueOf(defaultValue)).trim());
+    }
+
     private String getProperty(String property, String description) {
-        String propertyValue = System.getProperty(property);
+        String propertyValue = getOptionalProperty(property);
         if (propertyValue == null) {
-            propertyValue = properties.getProperty(property);
+            throw new IllegalStateException("Failed to read " + description + ". Use either broker.properties or System properties to define:" + property);
         }
+        return propertyValue;
+    }
+
+    private String getPropertyOrDefault(String property, String defaultValue) {
+        String propertyValue = getOptionalProperty(property);
+        return propertyValue == null ? defaultValue : propertyValue;
+    }
+
+    private String getOptionalProperty(String property) {
+        String propertyValue = System.getProperty(property);
         if (propertyValue == null) {
-            throw new IllegalStateException("Failed to read " + description + ". Use either broker.properties or System properties to define:" + property);
+            propertyValue = properties.getProperty(property);
         }
         return propertyValue;
     }
@@ -0,0 +1,37 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.consumer;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.test.web.client.RequestMatcher;
+
+/**
+ * A request matcher that can say up front which method and URI it expects, so that
+ * {@link IndexedRequestExpectationManager} can find it without trying every expectation.
+ */
+public interface IndexableRequestMatcher extends RequestMatcher {
+
+    HttpMethod getExpectedMethod();
+
+    /**
+     * @return The encoded URI, or part of it, that a matching request contains
+     */
+    String getExpectedUri();
+}
@@ -0,0 +1,291 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.consumer;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.RequestExpectation;
+import org.springframework.test.web.client.RequestExpectationManager;
+import org.springframework.test.web.client.RequestMatcher;
+import org.springframework.test.web.client.ResponseActions;
+import org.springframework.test.web.client.ResponseCreator;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Matches requests to expectations in any order, from any number of threads. Expectations declared with an
+ * {@link IndexableRequestMatcher} are indexed by method and path, so a request is only matched against the expectations for its
+ * own path, in the order they were declared, and their bodies tell them apart. A request for a path whose expectations do not
+ * match, and expectations that cannot be indexed, fall back to trying every expectation.
+ * <p>
+ * Requests are matched without any lock. Each expectation counts its calls atomically, and the same matcher declared several times
+ * in a row, as {@link ReturnExpect#times(int)} does, becomes one expectation allowing that many calls.
+ */
+public class IndexedRequestExpectationManager implements RequestExpectationManager {
+
+    private final List<CountedExpectation> expectations = new CopyOnWriteArrayList<>();
+    private final ConcurrentMap<String, List<CountedExpectation>> index = new ConcurrentHashMap<>();
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final Queue<String> failures = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public synchronized ResponseActions expectRequest(ExpectedCount count, RequestMatcher matcher) {
+        if (!expectations.isEmpty()) {
+            CountedExpectation last = expectations.get(expectations.size() - 1);
+            if (last.matcher == matcher) {
+                last.expectMore(count);
+                return last;
+            }
+        }
+
+        CountedExpectation expectation = new CountedExpectation(count, matcher);
+        expectations.add(expectation);
+        String key = indexKey(matcher);
+        if (key != null) {
+            index.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(expectation);
+        }
+        return expectation;
+    }
+
+    @Override
+    public ClientHttpResponse validateRequest(ClientHttpRequest request) throws IOException {
+        requestCount.incrementAndGet();
+        CountedExpectation expectation;
+        try {
+            expectation = matchRequest(request);
+        } catch (AssertionError e) {
+            failures.add(request.getMethod() + " " + request.getURI() + ": " + e.getMessage());
+            throw e;
+        }
+        return expectation.createResponse(request);
+    }
+
+    private CountedExpectation matchRequest(ClientHttpRequest request) throws IOException {
+        AssertionError mismatch = null;
+        String path = normalisePath(request.getURI().getRawPath());
+
+        // the expected URI only has to be contained in the request URI, so try each trailing run of path segments
+        for (int start = 0; start >= 0; start = path.indexOf('/', start + 1)) {
+            List<CountedExpectation> candidates = index.get(key(request.getMethod(), path.substring(start)));
+            if (candidates == null) {
+                continue;
+            }
+            for (CountedExpectation candidate : candidates) {
+                try {
+                    if (candidate.matchAndConsume(request)) {
+                        return candidate;
+                    }
+                } catch (AssertionError e) {
+                    if (mismatch == null) {
+                        mismatch = e;
+                    }
+                }
+            }
+        }
+
+        for (CountedExpectation candidate : expectations) {
+            try {
+                if (candidate.matchAndConsume(request)) {
+                    return candidate;
+                }
+            } catch (AssertionError e) {
+                // try the next expectation
+            }
+        }
+
+        throw mismatch != null ? mismatch : new AssertionError("No further requests expected: HTTP " + request.getMethod() + " " + request.getURI() + "\n"
+                + requestCount.get() + " request(s) executed");
+    }
+
+    @Override
+    public void verify() {
+        if (expectations.isEmpty()) {
+            return;
+        }
+        List<String> unsatisfied = new ArrayList<>();
+        for (CountedExpectation expectation : expectations) {
+            if (!expectation.isSatisfied()) {
+                unsatisfied.add(expectation.toString());
+            }
+        }
+        if (!unsatisfied.isEmpty() || !failures.isEmpty()) {
+            StringBuilder message = new StringBuilder();
+            if (!unsatisfied.isEmpty()) {
+                message.append("Further request(s) expected leaving ").append(unsatisfied.size()).append(" unsatisfied expectation(s):\n");
+                unsatisfied.forEach(expectation -> message.append("  ").append(expectation).append('\n'));
+            }
+            if (!failures.isEmpty()) {
+                message.append("Some requests did not execute successfully:\n");
+                failures.forEach(failure -> message.append("  ").append(failure).append('\n'));
+            }
+            message.append(requestCount.get()).append(" request(s) executed");
+            throw new AssertionError(message.toString());
+        }
+    }
+
+    @Override
+    public synchronized void reset() {
+        expectations.clear();
+        index.clear();
+        requestCount.set(0);
+        failures.clear();
+    }
+
+    private static String indexKey(RequestMatcher matcher) {
+        if (!(matcher instanceof IndexableRequestMatcher)) {
+            return null;
+        }
+        IndexableRequestMatcher indexable = (IndexableRequestMatcher) matcher;
+        try {
+            String path = URI.create(indexable.getExpectedUri()).getRawPath();
+            return path == null ? null : key(indexable.getExpectedMethod(), normalisePath(path));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String key(HttpMethod method, String path) {
+        return method + " " + path;
+    }
+
+    static String normalisePath(String path) {
+        String normalised = StringUtils.defaultString(path).replaceAll("/{2,}", "/");
+        if (!normalised.startsWith("/")) {
+            normalised = "/" + normalised;
+        }
+        return normalised.length() > 1 ? StringUtils.removeEnd(normalised, "/") : normalised;
+    }
+
+    /**
+     * An expectation whose calls are claimed with a compare-and-set, so two threads can never both take its last call.
+     */
+    static class CountedExpectation implements RequestExpectation {
+
+        private final RequestMatcher matcher;
+        private final List<RequestMatcher> additionalMatchers = new CopyOnWriteArrayList<>();
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile int minCalls;
+        private volatile int maxCalls;
+        private volatile ResponseCreator responseCreator;
+
+        CountedExpectation(ExpectedCount count, RequestMatcher matcher) {
+            this.matcher = matcher;
+            this.minCalls = count.getMinCount();
+            this.maxCalls = count.getMaxCount();
+        }
+
+        private void expectMore(ExpectedCount count) {
+            minCalls = saturatedAdd(minCalls, count.getMinCount());
+            maxCalls = saturatedAdd(maxCalls, count.getMaxCount());
+        }
+
+        /**
+         * @return false if the request matched but every call this expectation allows has been taken by other requests
+         */
+        boolean matchAndConsume(ClientHttpRequest request) throws IOException {
+            if (!hasRemainingCount()) {
+                return false;
+            }
+            match(request);
+            return tryConsume();
+        }
+
+        private boolean tryConsume() {
+            int current;
+            do {
+                current = calls.get();
+                if (current >= maxCalls) {
+                    return false;
+                }
+            } while (!calls.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        @Override
+        public ResponseActions andExpect(RequestMatcher requestMatcher) {
+            additionalMatchers.add(requestMatcher);
+            return this;
+        }
+
+        @Override
+        public void andRespond(ResponseCreator responseCreator) {
+            this.responseCreator = responseCreator;
+        }
+
+        @Override
+        public void match(ClientHttpRequest request) throws IOException {
+            matcher.match(request);
+            for (RequestMatcher additionalMatcher : additionalMatchers) {
+                additionalMatcher.match(request);
+            }
+        }
+
+        @Override
+        public ClientHttpResponse createResponse(ClientHttpRequest request) throws IOException {
+            ResponseCreator creator = responseCreator;
+            if (creator == null) {
+                throw new IllegalStateException("createResponse: no ResponseCreator was set up for " + this);
+            }
+            return creator.createResponse(request);
+        }
+
+        @Override
+        public boolean hasRemainingCount() {
+            return calls.get() < maxCalls;
+        }
+
+        @Override
+        public void incrementAndValidate() {
+            if (!tryConsume()) {
+                throw new AssertionError("No further requests expected for " + this);
+            }
+        }
+
+        @Override
+        public boolean isSatisfied() {
+            return calls.get() >= minCalls;
+        }
+
+        @Override
+        public String toString() {
+            String expected = matcher instanceof IndexableRequestMatcher
+                    ? ((IndexableRequestMatcher) matcher).getExpectedMethod() + " " + ((IndexableRequestMatcher) matcher).getExpectedUri()
+                    : matcher.toString();
+            return expected + " called " + calls.get() + " of " + (minCalls == maxCalls ? String.valueOf(minCalls) : minCalls + ".." + maxCalls) + " time(s)";
+        }
+
+        private static int saturatedAdd(int a, int b) {
+            long sum = (long) a + b;
+            return sum > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) sum;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.consumer;
+
+import com.tyro.oss.pact.spring.pact.model.Pact;
+import com.tyro.oss.pact.spring.util.ObjectStringConverter;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+public class PactFileRecording {
+
+    private final File pactFile;
+    private final ObjectStringConverter objectConverter;
+
+    private final PactJournal journal;
+    private final ReadWriteLock pendingLock = new ReentrantReadWriteLock();
+
+    private Pact pendingPact;
+
+    PactFileRecording(File pactFile, ObjectStringConverter objectConverter) {
+        this.pactFile = pactFile;
+        this.objectConverter = objectConverter;
+        this.pendingPact = Pact.newPact(objectConverter);
+        this.journal = new PactJournal(new File(pactFile.getPath() + "." + UUID.randomUUID() + ".journal"), objectConverter);
+    }
+
+    public File getPactFile() {
+        return pactFile;
+    }
+
+    /**
+     * Record an interaction according to the recording mode of the server that saw it.
+     *
+     * @param recordingMode  The recording mode of the server
+     * @param workflowId     The workflow the interaction belongs to
+     * @param providerStates The provider states of the workflow at the time of recording
+     * @param interaction    The interaction to record
+     * @throws IOException if the interaction had to be written to disk and could not be
+     */
+    public void record(RecordingMode recordingMode, String workflowId, List<Pact.ProviderState> providerStates, Pact.Interaction interaction) throws IOException {
+        switch (recordingMode) {
+            case JOURNAL:
+                journal.append(workflowId, providerStates, interaction);
+                break;
+            case WRITE_THROUGH:
+                addInteraction(workflowId, providerStates, interaction);
+                flush();
+                break;
+            default:
+                addInteraction(workflowId, providerStates, interaction);
+        }
+    }
+
+    /**
+     * Add an interaction to the in-memory pact. It will not be written to disk until {@link #flush()} is called.
+     * Interactions may be added from many threads at once; only a flush in progress blocks them.
+     *
+     * @param workflowId     The workflow the interaction belongs to
+     * @param providerStates The provider states of the workflow at the time of recording
+     * @param interaction    The interaction to record
+     */
+    void addInteraction(String workflowId, List<Pact.ProviderState> providerStates, Pact.Interaction interaction) {
+        pendingLock.readLock().lock();
+        try {
+            pendingPact.getWorkflow(workflowId, new ArrayList<>(providerStates)).addInteraction(interaction);
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Append all pending and journalled interactions to the pact file, preserving any workflows already written to it.
+     * The pact file itself is locked while it is merged so that other JVMs sharing the same output directory do not lose updates.
+     *
+     * @throws IOException if the pact file cannot be read or written
+     */
+    public synchronized void flush() throws IOException {
+        synchronized (journal) {
+            Pact flushedPact = takePendingPact();
+            if (flushedPact.getWorkFlows().isEmpty() && journal.isEmpty()) {
+                return;
+            }
+
+            pactFile.getAbsoluteFile().getParentFile().mkdirs();
+
+            try (FileChannel channel = FileChannel.open(pactFile.toPath(), CREATE, READ, WRITE)) {
+                FileLock lock = channel.lock();
+                try {
+                    Pact pact = readPactFile(channel);
+                    mergeInto(pact, flushedPact);
+                    journal.replayInto(pact);
+                    channel.truncate(0);
+                    Pact.writePact(pact, Channels.newWriter(channel, UTF_8.newEncoder(), -1), objectConverter);
+                } finally {
+                    lock.release();
+                }
+            } catch (IOException e) {
+                restorePendingPact(flushedPact);
+                throw e;
+            }
+            journal.clear();
+        }
+    }
+
+    private static void mergeInto(Pact target, Pact source) {
+        for (Pact.Workflow sourceWorkflow : source.getWorkFlows().values()) {
+            Pact.Workflow workflow = target.getWorkflow(sourceWorkflow.getId(), sourceWorkflow.getProviderStates());
+            for (Pact.Interaction interaction : sourceWorkflow.getInteractions()) {
+                workflow.addInteraction(interaction);
+            }
+        }
+    }
+
+    private Pact takePendingPact() {
+        pendingLock.writeLock().lock();
+        try {
+            Pact flushedPact = pendingPact;
+            pendingPact = Pact.newPact(objectConverter);
+            return flushedPact;
+        } finally {
+            pendingLock.writeLock().unlock();
+        }
+    }
+
+    private void restorePendingPact(Pact flushedPact) {
+        pendingLock.writeLock().lock();
+        try {
+            mergeInto(flushedPact, pendingPact);
+            pendingPact = flushedPact;
+        } finally {
+            pendingLock.writeLock().unlock();
+        }
+    }
+
+    private Pact readPactFile(FileChannel channel) throws IOException {
+        if (channel.size() > 0) {
+            // the reader is not closed, as that would close the channel holding the lock
+            Reader reader = new BufferedReader(Channels.newReader(channel, UTF_8.newDecoder(), -1));
+            return Pact.parse(reader, objectConverter);
+        }
+        return Pact.newPact(objectConverter);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.consumer;
+
+import com.tyro.oss.pact.spring.util.ObjectStringConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public final class PactFileRegistry {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PactFileRegistry.class);
+
+    private static final PactFileRegistry INSTANCE = new PactFileRegistry();
+
+    private final ConcurrentMap<String, PactFileRecording> recordings = new ConcurrentHashMap<>();
+    private final AtomicBoolean shutdownHookRegistered = new AtomicBoolean(false);
+
+    private PactFileRegistry() {
+    }
+
+    public static PactFileRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Find the recording for a pact file, creating it if this is the first time the file has been seen in this JVM.
+     * All servers writing to the same file share the same recording, and so the converter of the first server wins.
+     *
+     * @param pactFile        The pact file to record to
+     * @param objectConverter The converter used to read and write the pact file
+     * @return The recording shared by every server writing to the same canonical file
+     */
+    public PactFileRecording getRecording(File pactFile, ObjectStringConverter objectConverter) {
+        registerShutdownHook();
+        return recordings.computeIfAbsent(canonicalPath(pactFile), path -> new PactFileRecording(new File(path), objectConverter));
+    }
+
+    /**
+     * Write every pending interaction of every known pact file to disk. Each file is flushed under its own lock,
+     * so recording to other files carries on while one is being written.
+     *
+     * @throws IOException if any of the pact files could not be written. All other files are still written.
+     */
+    public void flushAll() throws IOException {
+        List<String> failedFiles = new ArrayList<>();
+        IOException firstFailure = null;
+
+        for (PactFileRecording recording : recordings.values()) {
+            try {
+                recording.flush();
+            } catch (IOException e) {
+                failedFiles.add(recording.getPactFile().getPath());
+                if (firstFailure == null) {
+                    firstFailure = e;
+                }
+            }
+        }
+
+        if (firstFailure != null) {
+            throw new IOException("Could not write pact files " + failedFiles, firstFailure);
+        }
+    }
+
+    private void registerShutdownHook() {
+        if (shutdownHookRegistered.compareAndSet(false, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(this::flushAllQuietly, "pact-file-registry-flush"));
+        }
+    }
+
+    private void flushAllQuietly() {
+        try {
+            flushAll();
+        } catch (IOException e) {
+            LOG.error("Failed to write pact files at JVM shutdown", e);
+        }
+    }
+
+    private static String canonicalPath(File pactFile) {
+        try {
+            return pactFile.getCanonicalPath();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not resolve the canonical path of pact file " + pactFile, e);
+        }
+    }
+}
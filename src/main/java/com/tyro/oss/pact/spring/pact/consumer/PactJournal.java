@@ -0,0 +1,149 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.consumer;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.tyro.oss.pact.spring.pact.model.Pact;
+import com.tyro.oss.pact.spring.util.ObjectStringConverter;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * An append-only file of recorded interactions, one JSON line each, that is replayed into the pact file when it is flushed. The
+ * journal is private to one recording and deleted once replayed, so its lines are always written with Gson, whichever
+ * {@link ObjectStringConverter} records the pact. Interactions are only given that converter when they are replayed.
+ */
+class PactJournal {
+
+    private static final Gson JOURNAL_GSON = new GsonBuilder().create();
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte NEW_LINE = '\n';
+
+    private final File journalFile;
+    private final ObjectStringConverter objectConverter;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    private FileChannel channel;
+
+    PactJournal(File journalFile, ObjectStringConverter objectConverter) {
+        this.journalFile = journalFile;
+        this.objectConverter = objectConverter;
+    }
+
+    synchronized void append(String workflowId, List<Pact.ProviderState> providerStates, Pact.Interaction interaction) throws IOException {
+        JournalEntry entry = new JournalEntry(workflowId, providerStates, interaction.getRequest(), interaction.getResponse());
+        byte[] line = JOURNAL_GSON.toJson(entry).getBytes(UTF_8);
+
+        if (line.length + 1 > buffer.remaining()) {
+            writeBuffer();
+        }
+        if (line.length + 1 > buffer.capacity()) {
+            ByteBuffer largeLine = ByteBuffer.allocate(line.length + 1).put(line).put(NEW_LINE);
+            largeLine.flip();
+            writeFully(largeLine);
+        } else {
+            buffer.put(line).put(NEW_LINE);
+        }
+    }
+
+    synchronized boolean isEmpty() {
+        return buffer.position() == 0 && !journalFile.exists();
+    }
+
+    /**
+     * Replay every journalled interaction into the given pact, one line at a time.
+     */
+    synchronized void replayInto(Pact pact) throws IOException {
+        writeBuffer();
+        if (!journalFile.exists()) {
+            return;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(journalFile.toPath(), UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                JournalEntry entry = JOURNAL_GSON.fromJson(line, JournalEntry.class);
+                pact.getWorkflow(entry.workflowId, entry.providerStates)
+                        .addInteraction(new Pact.Interaction(entry.request, entry.response, objectConverter));
+            }
+        }
+    }
+
+    /**
+     * Discard the journal once its interactions have been written to the pact file.
+     */
+    synchronized void clear() throws IOException {
+        buffer.clear();
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+        Files.deleteIfExists(journalFile.toPath());
+    }
+
+    private void writeBuffer() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer bytes) throws IOException {
+        if (channel == null) {
+            journalFile.getAbsoluteFile().getParentFile().mkdirs();
+            channel = FileChannel.open(journalFile.toPath(), CREATE, WRITE, APPEND);
+        }
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    private static class JournalEntry {
+
+        private final String workflowId;
+        private final List<Pact.ProviderState> providerStates;
+        private final Pact.InteractionRequest request;
+        private final Pact.InteractionResponse response;
+
+        private JournalEntry(String workflowId, List<Pact.ProviderState> providerStates, Pact.InteractionRequest request, Pact.InteractionResponse response) {
+            this.workflowId = workflowId;
+            this.providerStates = providerStates;
+            this.request = request;
+            this.response = response;
+        }
+    }
+}
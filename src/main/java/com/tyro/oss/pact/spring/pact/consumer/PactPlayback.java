@@ -0,0 +1,339 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.consumer;
+
+import com.tyro.oss.pact.spring.pact.model.Pact;
+import com.tyro.oss.pact.spring.util.ObjectStringConverter;
+import org.json.JSONException;
+import org.skyscreamer.jsonassert.JSONCompare;
+import org.skyscreamer.jsonassert.JSONCompareMode;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.test.web.client.RequestMatcher;
+import org.springframework.test.web.client.ResponseCreator;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The interactions of a pact file, indexed by workflow, method and URI, so that a {@link TuPactRecordingServer} in playback mode
+ * can answer the expected requests with their recorded responses instead of recording them again. Each pact file is read once
+ * per JVM, and each workflow is indexed the first time it is played back.
+ */
+public final class PactPlayback {
+
+    /**
+     * Set to true to play back every {@link TuPactRecordingServer} from its pact file rather than recording it.
+     */
+    public static final String PLAYBACK_PROPERTY = "pact.consumer.playback";
+
+    private static final ConcurrentMap<String, PactPlayback> PLAYBACKS = new ConcurrentHashMap<>();
+
+    private final File pactFile;
+    private final Pact pact;
+    private final ConcurrentMap<String, WorkflowIndex> workflows = new ConcurrentHashMap<>();
+
+    private PactPlayback(File pactFile, Pact pact) {
+        this.pactFile = pactFile;
+        this.pact = pact;
+    }
+
+    /**
+     * Find the playback of a pact file, reading the file if this is the first time it has been played back in this JVM.
+     */
+    public static PactPlayback forFile(File pactFile, ObjectStringConverter objectConverter) {
+        try {
+            return PLAYBACKS.computeIfAbsent(pactFile.getCanonicalPath(), path -> load(new File(path), objectConverter));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not resolve the canonical path of pact file " + pactFile, e);
+        }
+    }
+
+    private static PactPlayback load(File pactFile, ObjectStringConverter objectConverter) {
+        if (!pactFile.isFile()) {
+            throw new IllegalStateException("Cannot play back pact file " + pactFile + " as it does not exist. Record it first by running without playback.");
+        }
+        try (InputStream json = new FileInputStream(pactFile)) {
+            return new PactPlayback(pactFile, Pact.parseLazily(json, objectConverter));
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read pact file " + pactFile, e);
+        }
+    }
+
+    /**
+     * Start playing back one workflow. Each expectation declared against the playback must match an interaction recorded in the
+     * workflow, and each request is answered with the recorded response of the expectation it matches.
+     */
+    public WorkflowPlayback playWorkflow(String workflowId) {
+        return new WorkflowPlayback(workflowId, workflows.computeIfAbsent(workflowId, this::index));
+    }
+
+    private WorkflowIndex index(String workflowId) {
+        Pact.Workflow workflow = pact.getWorkFlows().get(workflowId);
+        List<Pact.Interaction> interactions = workflow == null ? Collections.emptyList() : workflow.getInteractions();
+        List<RecordedInteraction> recorded = new ArrayList<>();
+        Map<String, List<RecordedInteraction>> byKey = new HashMap<>();
+        for (Pact.Interaction interaction : interactions) {
+            RecordedInteraction recordedInteraction = new RecordedInteraction(recorded.size(), interaction);
+            recorded.add(recordedInteraction);
+            byKey.computeIfAbsent(key(interaction.getRequest()), k -> new ArrayList<>()).add(recordedInteraction);
+        }
+        return new WorkflowIndex(recorded, byKey);
+    }
+
+    private static String key(Pact.InteractionRequest request) {
+        URI uri = URI.create(request.getUri());
+        return key(request.getMethod(), IndexedRequestExpectationManager.normalisePath(uri.getRawPath()), uri.getRawQuery());
+    }
+
+    private static String key(HttpMethod method, String path, String query) {
+        return method + " " + (query == null ? path : path + "?" + query);
+    }
+
+    private static String describe(HttpMethod method, String uri) {
+        return method + " " + uri;
+    }
+
+    /**
+     * Compares the parts of a declared expectation that are not already in its key with a recorded interaction.
+     */
+    private static boolean sameInteraction(Pact.Interaction recorded, Pact.Interaction declared) {
+        return recorded.getResponse().getStatus() == declared.getResponse().getStatus()
+                && sameBody(recorded.getRequest().getBody(), declared.getRequest().getBody())
+                && sameBody(recorded.getResponse().getBody(), declared.getResponse().getBody());
+    }
+
+    private static boolean sameBody(String recorded, String declared) {
+        String recordedBody = recorded == null ? "" : recorded;
+        String declaredBody = declared == null ? "" : declared;
+        if (recordedBody.equals(declaredBody)) {
+            return true;
+        }
+        try {
+            return JSONCompare.compareJSON(recordedBody, declaredBody, JSONCompareMode.STRICT).passed();
+        } catch (JSONException e) {
+            return false;
+        }
+    }
+
+    /**
+     * The playback of one workflow by one server. Expectations claim the first unclaimed interaction recorded with their method
+     * and URI whose bodies match, and each claimed interaction answers one request.
+     */
+    public final class WorkflowPlayback implements ClientHttpRequestFactory {
+
+        private final String workflowId;
+        private final WorkflowIndex index;
+        private final boolean[] claimed;
+        private final List<Claim> claims = new ArrayList<>();
+        private final Map<String, List<Claim>> unservedByKey = new HashMap<>();
+
+        private WorkflowPlayback(String workflowId, WorkflowIndex index) {
+            this.workflowId = workflowId;
+            this.index = index;
+            this.claimed = new boolean[index.recorded.size()];
+        }
+
+        /**
+         * Expect a request the given number of times, answering it with the matching recorded interactions, or with the stub
+         * response when the expectation is not recorded.
+         *
+         * @throws AssertionError if the workflow does not have enough unclaimed interactions matching the declared one
+         */
+        synchronized void expect(RequestMatcher matcher, ResponseCreator stub, Pact.Interaction declared, boolean isRecorded, int times) {
+            Pact.InteractionRequest request = declared.getRequest();
+            String key = key(request);
+            List<Claim> unserved = unservedByKey.computeIfAbsent(key, k -> new ArrayList<>());
+            for (int i = 0; i < times; i++) {
+                Claim claim;
+                if (isRecorded) {
+                    RecordedInteraction recorded = claimRecorded(key, declared);
+                    claim = new Claim(request, matcher, recorded.response, recorded.index);
+                } else {
+                    claim = new Claim(request, matcher, stub, -1);
+                }
+                claims.add(claim);
+                unserved.add(claim);
+            }
+        }
+
+        private RecordedInteraction claimRecorded(String key, Pact.Interaction declared) {
+            for (RecordedInteraction candidate : index.byKey.getOrDefault(key, Collections.emptyList())) {
+                if (!claimed[candidate.index] && sameInteraction(candidate.interaction, declared)) {
+                    claimed[candidate.index] = true;
+                    return candidate;
+                }
+            }
+            Pact.InteractionRequest request = declared.getRequest();
+            throw new AssertionError("Expected " + describe(request.getMethod(), request.getUri()) + " does not match an interaction recorded in workflow '"
+                    + workflowId + "' of pact file " + pactFile + ". Record the pact again without playback.");
+        }
+
+        @Override
+        public ClientHttpRequest createRequest(URI uri, HttpMethod method) {
+            return new MockClientHttpRequest(method, uri) {
+                @Override
+                protected ClientHttpResponse executeInternal() throws IOException {
+                    return respond(this);
+                }
+            };
+        }
+
+        private synchronized ClientHttpResponse respond(ClientHttpRequest request) throws IOException {
+            String path = IndexedRequestExpectationManager.normalisePath(request.getURI().getRawPath());
+            String query = request.getURI().getRawQuery();
+            AssertionError mismatch = null;
+
+            // expected URIs only have to be contained in the request URI, so try each trailing run of path segments
+            for (int start = 0; start >= 0; start = path.indexOf('/', start + 1)) {
+                List<Claim> candidates = unservedByKey.get(key(request.getMethod(), path.substring(start), query));
+                if (candidates == null) {
+                    continue;
+                }
+                for (Iterator<Claim> iterator = candidates.iterator(); iterator.hasNext(); ) {
+                    Claim claim = iterator.next();
+                    try {
+                        claim.matcher.match(request);
+                    } catch (AssertionError e) {
+                        mismatch = mismatch == null ? e : mismatch;
+                        continue;
+                    }
+                    iterator.remove();
+                    claim.served = true;
+                    return claim.response.createResponse(request);
+                }
+            }
+            String message = "No expectation for " + describe(request.getMethod(), request.getURI().toString()) + " is left to answer it from workflow '"
+                    + workflowId + "' of pact file " + pactFile;
+            throw mismatch == null ? new AssertionError(message) : new AssertionError(message + ": " + mismatch.getMessage(), mismatch);
+        }
+
+        /**
+         * Check that every expectation has been requested, and forget them. At the end of the workflow, also check that every
+         * recorded interaction has been requested; before then, only those recorded ahead of one that has.
+         *
+         * @throws AssertionError listing the expectations and recorded interactions that were not requested
+         */
+        synchronized void verify(boolean endOfWorkflow) {
+            List<String> missing = new ArrayList<>();
+            int lastServed = -1;
+            for (Claim claim : claims) {
+                if (!claim.served) {
+                    missing.add("expected " + claim.description);
+                } else {
+                    lastServed = Math.max(lastServed, claim.recordedIndex);
+                }
+            }
+            int checkedUpTo = endOfWorkflow ? index.recorded.size() : lastServed;
+            for (int i = 0; i < checkedUpTo; i++) {
+                if (!claimed[i]) {
+                    Pact.InteractionRequest request = index.recorded.get(i).interaction.getRequest();
+                    missing.add("recorded " + describe(request.getMethod(), request.getUri()));
+                }
+            }
+            if (!missing.isEmpty()) {
+                throw new AssertionError("Not requested while playing back workflow '" + workflowId + "' of pact file " + pactFile + ": " + String.join(", ", missing));
+            }
+            claims.clear();
+            unservedByKey.clear();
+        }
+    }
+
+    private static final class WorkflowIndex {
+
+        private final List<RecordedInteraction> recorded;
+        private final Map<String, List<RecordedInteraction>> byKey;
+
+        private WorkflowIndex(List<RecordedInteraction> recorded, Map<String, List<RecordedInteraction>> byKey) {
+            this.recorded = recorded;
+            this.byKey = byKey;
+        }
+    }
+
+    private static final class RecordedInteraction {
+
+        private final int index;
+        private final Pact.Interaction interaction;
+        private final RecordedResponse response;
+
+        private RecordedInteraction(int index, Pact.Interaction interaction) {
+            this.index = index;
+            this.interaction = interaction;
+            this.response = new RecordedResponse(interaction.getResponse());
+        }
+    }
+
+    private static final class Claim {
+
+        private final String description;
+        private final RequestMatcher matcher;
+        private final ResponseCreator response;
+        private final int recordedIndex;
+        private boolean served;
+
+        private Claim(Pact.InteractionRequest request, RequestMatcher matcher, ResponseCreator response, int recordedIndex) {
+            this.description = describe(request.getMethod(), request.getUri());
+            this.matcher = matcher;
+            this.response = response;
+            this.recordedIndex = recordedIndex;
+        }
+    }
+
+    private static final class RecordedResponse implements ResponseCreator {
+
+        private final HttpStatus status;
+        private final HttpHeaders headers;
+        private final byte[] body;
+
+        private RecordedResponse(Pact.InteractionResponse response) {
+            this.status = HttpStatus.valueOf(response.getStatus());
+            this.headers = response.getHeaders();
+            this.body = response.getBody() == null ? new byte[0] : response.getBody().getBytes(UTF_8);
+        }
+
+        @Override
+        public ClientHttpResponse createResponse(ClientHttpRequest request) {
+            MockClientHttpResponse response = new MockClientHttpResponse(body, status);
+            if (headers != null) {
+                response.getHeaders().putAll(headers);
+            }
+            return response;
+        }
+    }
+}
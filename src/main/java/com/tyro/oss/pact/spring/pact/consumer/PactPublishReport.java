@@ -0,0 +1,124 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.consumer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+public class PactPublishReport {
+
+    private final List<Result> results = Collections.synchronizedList(new ArrayList<>());
+
+    void add(Result result) {
+        results.add(result);
+    }
+
+    public List<Result> getResults() {
+        synchronized (results) {
+            return new ArrayList<>(results);
+        }
+    }
+
+    public List<Result> getFailures() {
+        return getResults().stream().filter(result -> !result.isSuccess()).collect(toList());
+    }
+
+    public List<Result> getSkipped() {
+        return getResults().stream().filter(Result::isSkipped).collect(toList());
+    }
+
+    public boolean isSuccess() {
+        return getFailures().isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        List<Result> all = getResults();
+        List<Result> failures = getFailures();
+        int skipped = getSkipped().size();
+        StringBuilder report = new StringBuilder()
+                .append("Published ").append(all.size() - failures.size() - skipped).append(" of ").append(all.size()).append(" pact files");
+        if (skipped > 0) {
+            report.append(", ").append(skipped).append(" unchanged since they were last published");
+        }
+        for (Result failure : failures) {
+            report.append("\n - ").append(failure.getPactFile().getName())
+                    .append(" failed after ").append(failure.getAttempts()).append(" attempt(s): ")
+                    .append(failure.getError().getMessage());
+        }
+        return report.toString();
+    }
+
+    public static class Result {
+
+        private final String provider;
+        private final File pactFile;
+        private final int attempts;
+        private final Exception error;
+        private final boolean skipped;
+
+        Result(String provider, File pactFile, int attempts, Exception error) {
+            this(provider, pactFile, attempts, error, false);
+        }
+
+        private Result(String provider, File pactFile, int attempts, Exception error, boolean skipped) {
+            this.provider = provider;
+            this.pactFile = pactFile;
+            this.attempts = attempts;
+            this.error = error;
+            this.skipped = skipped;
+        }
+
+        static Result skipped(String provider, File pactFile) {
+            return new Result(provider, pactFile, 0, null, true);
+        }
+
+        public String getProvider() {
+            return provider;
+        }
+
+        public File getPactFile() {
+            return pactFile;
+        }
+
+        public int getAttempts() {
+            return attempts;
+        }
+
+        public Exception getError() {
+            return error;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        /**
+         * Whether the file was not sent because it was identical to the pact last published for the same provider, consumer and version.
+         */
+        public boolean isSkipped() {
+            return skipped;
+        }
+    }
+}
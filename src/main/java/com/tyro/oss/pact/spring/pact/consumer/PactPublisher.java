@@ -19,43 +19,143 @@
  */
 package com.tyro.oss.pact.spring.pact.consumer;
 
+import com.tyro.oss.pact.spring.pact.PactBrokerClient;
 import com.tyro.oss.pact.spring.pact.PactBrokerUrlSource;
-import org.apache.commons.io.FileUtils;
+import com.tyro.oss.pact.spring.util.CanonicalJson;
+import com.tyro.oss.pact.spring.util.Digests;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.ResourceAccessException;
-import org.springframework.web.client.RestTemplate;
 
 import java.io.File;
 import java.io.FilenameFilter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 public final class PactPublisher {
 
+    private static final Logger LOG = LoggerFactory.getLogger(PactPublisher.class);
+    private static final String FORCE_ARGUMENT = "--force";
+
     private PactPublisher() {
     }
 
     public static void main(String[] args) throws Exception {
+        if (args.length != 3 && !(args.length == 4 && FORCE_ARGUMENT.equals(args[3]))) {
+            throw new IllegalArgumentException("publish-pact profile in the pom.xml should contain the following arguments <CONSUMER> <VERSION> <PACT-FILE-LOCATION> [" + FORCE_ARGUMENT + "]");
+        }
+
         String consumer = args[0];
         String version = args[1];
         String pactFileRoot = args[2];
-
-        if (args.length != 3) {
-            throw new IllegalArgumentException("publish-pact profile in the pom.xml should contain the following arguments <CONSUMER> <VERSION> <PACT-FILE-LOCATION>");
-        }
+        boolean force = args.length == 4;
 
         PactBrokerUrlSource pactBrokerUrlSource = new PactBrokerUrlSource();
-        publishPactFiles(consumer, version, pactFileRoot, pactBrokerUrlSource.getPactUrlForPublish());
+        publishPactFiles(consumer, version, pactFileRoot, pactBrokerUrlSource.getPactUrlForPublish(), force || pactBrokerUrlSource.isPublishForced());
     }
 
+    /**
+     * Publish every pact file in a directory that has changed since it was last published, see {@link #publishPactFiles(String, String, String, String, boolean)}
+     * for the report of what was published.
+     */
     public static void publishPactFiles(String consumer, String version, String pactFileRoot, String publishUrl) throws IOException {
-        for (File pactFile : findPactFiles(pactFileRoot)) {
-            String provider = pactFile.getName().replace("_pacts.json", "").replace("_", "-");
-            publishPactFile(provider, consumer, version, pactFile.getAbsolutePath(), publishUrl);
+        publishPactFiles(consumer, version, pactFileRoot, publishUrl, new PactBrokerUrlSource().isPublishForced());
+    }
+
+    /**
+     * Publish every pact file in a directory, several at a time, retrying transient failures. A pact whose canonical JSON is identical
+     * to the one last published for the same provider, consumer and version is skipped unless publishing is forced. A file whose bytes
+     * have not changed at all is recognised without being parsed.
+     *
+     * @param force Publish every pact file, even those that have not changed
+     * @return A report of every file published or skipped
+     * @throws NoPactBrokerException if no file could be published because the broker could not be reached
+     * @throws PactPublishException  if any other file could not be published, once all files have been attempted
+     */
+    public static PactPublishReport publishPactFiles(String consumer, String version, String pactFileRoot, String publishUrl, boolean force) throws IOException {
+        PactBrokerUrlSource pactBrokerUrlSource = new PactBrokerUrlSource();
+        File[] pactFiles = findPactFiles(pactFileRoot);
+        PactPublishReport report = new PactPublishReport();
+        PublishedPactManifest manifest = PublishedPactManifest.load(pactBrokerUrlSource.getPublishManifest());
+        String publishedVersion = version.replace("-SNAPSHOT", "");
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(pactFiles.length, pactBrokerUrlSource.getPublishThreads())));
+        try {
+            List<Future<?>> publications = new ArrayList<>();
+            for (File pactFile : pactFiles) {
+                String provider = pactFile.getName().replace("_pacts.json", "").replace("_", "-");
+                publications.add(executor.submit(() -> {
+                    String rawDigest = rawDigest(pactFile);
+                    if (!force && manifest.isUnchangedFile(publishUrl, provider, consumer, publishedVersion, rawDigest)) {
+                        report.add(PactPublishReport.Result.skipped(provider, pactFile));
+                        return null;
+                    }
+
+                    String digest = canonicalDigest(pactFile);
+                    if (!force && manifest.isUnchanged(publishUrl, provider, consumer, publishedVersion, digest)) {
+                        manifest.recordPublished(publishUrl, provider, consumer, publishedVersion, digest, rawDigest);
+                        report.add(PactPublishReport.Result.skipped(provider, pactFile));
+                        return null;
+                    }
+
+                    PactPublishReport.Result result = publishWithRetries(provider, consumer, publishedVersion, pactFile, publishUrl, pactBrokerUrlSource);
+                    if (result.isSuccess()) {
+                        manifest.recordPublished(publishUrl, provider, consumer, publishedVersion, digest, rawDigest);
+                    }
+                    report.add(result);
+                    return null;
+                }));
+            }
+            for (Future<?> publication : publications) {
+                publication.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while publishing pact files", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to publish pact files", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            manifest.save();
+        }
+
+        LOG.info(report.toString());
+        List<PactPublishReport.Result> failures = report.getFailures();
+        if (!failures.isEmpty()) {
+            Exception cause = failures.get(0).getError();
+            if (failures.size() == pactFiles.length && failures.stream().allMatch(failure -> failure.getError() instanceof ResourceAccessException)) {
+                throw new NoPactBrokerException(String.format("Could not reach Pact broker: %s. %s", publishUrl, report), cause);
+            }
+            throw new PactPublishException(report, cause);
+        }
+        return report;
+    }
+
+    private static String rawDigest(File pactFile) throws IOException {
+        try (InputStream in = Files.newInputStream(pactFile.toPath())) {
+            return Digests.sha256Hex(in);
+        }
+    }
+
+    private static String canonicalDigest(File pactFile) throws IOException {
+        try (Reader reader = Files.newBufferedReader(pactFile.toPath(), UTF_8)) {
+            return CanonicalJson.digest(reader);
         }
     }
 
@@ -73,11 +173,38 @@ public final class PactPublisher {
         });
     }
 
-    private static void publishPactFile(String provider, String consumer, String version, String pactFile, String brokerBaseUrl) throws IOException {
-        if (version.contains("-SNAPSHOT")) {
-            version = version.replace("-SNAPSHOT", "");
+    private static PactPublishReport.Result publishWithRetries(String provider, String consumer, String version, File pactFile, String brokerBaseUrl,
+                                                               PactBrokerUrlSource pactBrokerUrlSource) throws InterruptedException {
+        int maximumAttempts = Math.max(1, pactBrokerUrlSource.getPublishAttempts());
+        long backoffMillis = pactBrokerUrlSource.getPublishBackoffMillis();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                publishPactFile(provider, consumer, version, pactFile, brokerBaseUrl);
+                return new PactPublishReport.Result(provider, pactFile, attempt, null);
+            } catch (RuntimeException e) {
+                if (attempt >= maximumAttempts || !isTransient(e)) {
+                    return new PactPublishReport.Result(provider, pactFile, attempt, e);
+                }
+                LOG.warn(String.format("Attempt %d to publish %s failed, retrying in %dms: %s", attempt, pactFile.getName(), backoffMillis, e.getMessage()));
+                Thread.sleep(backoffMillis);
+                backoffMillis *= 2;
+            }
         }
+    }
 
+    private static boolean isTransient(RuntimeException e) {
+        if (e instanceof ResourceAccessException) {
+            return true;
+        }
+        if (e instanceof HttpStatusCodeException) {
+            HttpStatus status = ((HttpStatusCodeException) e).getStatusCode();
+            return status.is5xxServerError() || status == HttpStatus.TOO_MANY_REQUESTS;
+        }
+        return false;
+    }
+
+    private static void publishPactFile(String provider, String consumer, String version, File pactFile, String brokerBaseUrl) {
         String url = brokerBaseUrl
                 + "/pacts/provider/"
                 + provider
@@ -86,19 +213,10 @@ public final class PactPublisher {
                 + "/version/"
                 + version;
 
-        String pactJson = FileUtils.readFileToString(new File(pactFile), UTF_8);
-
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
-        HttpEntity<String> httpEntity = new HttpEntity<>(pactJson, headers);
+        HttpEntity<FileSystemResource> httpEntity = new HttpEntity<>(new FileSystemResource(pactFile), headers);
 
-        try {
-            RestTemplate restTemplate = new RestTemplate();
-            restTemplate.put(url, httpEntity);
-        } catch (ResourceAccessException e) {
-            throw new NoPactBrokerException(String.format("Could not reach Pact broker: %s.", brokerBaseUrl), e);
-        } catch (HttpClientErrorException e) {
-            throw e;
-        }
+        PactBrokerClient.getInstance().getRestTemplate().put(url, httpEntity);
     }
 }
@@ -0,0 +1,124 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.consumer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * The digests of the pacts last published, shared by every build on the machine. The manifest file itself is locked while it is read
+ * or written, and {@link #save()} merges the digests this publisher recorded into whatever other processes have saved since it was
+ * loaded.
+ */
+final class PublishedPactManifest {
+
+    private static final String RAW_PREFIX = "raw:";
+
+    private final File manifestFile;
+    private final Map<String, String> digests = new ConcurrentHashMap<>();
+    private final Map<String, String> recorded = new ConcurrentHashMap<>();
+
+    private PublishedPactManifest(File manifestFile) {
+        this.manifestFile = manifestFile;
+    }
+
+    static PublishedPactManifest load(File manifestFile) throws IOException {
+        PublishedPactManifest manifest = new PublishedPactManifest(manifestFile);
+        if (manifestFile.isFile()) {
+            try (FileChannel channel = FileChannel.open(manifestFile.toPath(), READ)) {
+                FileLock lock = channel.lock(0, Long.MAX_VALUE, true);
+                try {
+                    manifest.digests.putAll(read(channel));
+                } finally {
+                    lock.release();
+                }
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * @param rawDigest The SHA-256 of the bytes of the pact file, which matches only if the file has not been rewritten at all
+     */
+    boolean isUnchangedFile(String brokerUrl, String provider, String consumer, String version, String rawDigest) {
+        return rawDigest.equals(digests.get(RAW_PREFIX + key(brokerUrl, provider, consumer, version)));
+    }
+
+    /**
+     * @param digest The SHA-256 of the canonical JSON of the pact file
+     */
+    boolean isUnchanged(String brokerUrl, String provider, String consumer, String version, String digest) {
+        return digest.equals(digests.get(key(brokerUrl, provider, consumer, version)));
+    }
+
+    void recordPublished(String brokerUrl, String provider, String consumer, String version, String digest, String rawDigest) {
+        record(key(brokerUrl, provider, consumer, version), digest);
+        record(RAW_PREFIX + key(brokerUrl, provider, consumer, version), rawDigest);
+    }
+
+    void save() throws IOException {
+        if (recorded.isEmpty()) {
+            return;
+        }
+        Files.createDirectories(manifestFile.getAbsoluteFile().getParentFile().toPath());
+        try (FileChannel channel = FileChannel.open(manifestFile.toPath(), CREATE, READ, WRITE)) {
+            FileLock lock = channel.lock();
+            try {
+                Properties properties = new Properties();
+                properties.putAll(read(channel));
+                properties.putAll(recorded);
+                channel.truncate(0);
+                properties.store(Channels.newOutputStream(channel), "SHA-256 of the canonical JSON of each pact last published");
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    private void record(String key, String digest) {
+        digests.put(key, digest);
+        recorded.put(key, digest);
+    }
+
+    private static Map<String, String> read(FileChannel channel) throws IOException {
+        Properties properties = new Properties();
+        properties.load(Channels.newInputStream(channel));
+        Map<String, String> digests = new ConcurrentHashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            digests.put(key, properties.getProperty(key));
+        }
+        return digests;
+    }
+
+    private static String key(String brokerUrl, String provider, String consumer, String version) {
+        return brokerUrl + "/pacts/provider/" + provider + "/consumer/" + consumer + "/version/" + version;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.consumer;
+
+public enum RecordingMode {
+
+    /**
+     * Keep recorded interactions in memory and write them to the pact file when the server is reset or closed.
+     */
+    BUFFERED,
+
+    /**
+     * Re-read and rewrite the pact file after every recorded interaction.
+     */
+    WRITE_THROUGH,
+
+    /**
+     * Keep recorded interactions in memory, shared by every server in the JVM, and write each pact file once at the end of the test run.
+     */
+    DEFERRED,
+
+    /**
+     * Append each recorded interaction as a single JSON line to a journal next to the pact file, and compact the journal
+     * into the pact file at the end of the test run. Memory use stays flat however many interactions are recorded.
+     */
+    JOURNAL;
+
+    boolean writesAtEndOfRun() {
+        return this == DEFERRED || this == JOURNAL;
+    }
+}
@@ -22,25 +22,30 @@ package com.tyro.oss.pact.spring.pact.consumer;
 import com.tyro.oss.pact.rest.RestRequestDescriptor;
 import com.tyro.oss.pact.spring.pact.model.Pact;
 import com.tyro.oss.pact.spring.util.ObjectStringConverter;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.hamcrest.Matcher;
+import org.json.JSONArray;
 import org.json.JSONException;
-import org.skyscreamer.jsonassert.JSONAssert;
+import org.json.JSONObject;
+import org.json.JSONString;
+import org.skyscreamer.jsonassert.JSONCompare;
+import org.skyscreamer.jsonassert.JSONCompareMode;
+import org.skyscreamer.jsonassert.JSONCompareResult;
+import org.skyscreamer.jsonassert.JSONParser;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.ClientHttpRequest;
 import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.mock.http.client.MockClientHttpRequest;
 import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.ResponseCreator;
 import org.springframework.test.web.client.response.MockRestResponseCreators;
-import org.springframework.util.StreamUtils;
 import org.springframework.web.util.UriUtils;
 
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Type;
@@ -48,7 +53,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Set;
 
 import static com.tyro.oss.pact.spring.util.JsonSchemaMatcher.matchesSchema;
 import static java.lang.String.format;
@@ -63,24 +67,28 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 public class ReturnExpect<T> {
 
     private final RestRequestDescriptor restRequestDescriptor;
-    private final File pactFile;
+    private final PactFileRecording recording;
+    private final RecordingMode recordingMode;
     private final Boolean withoutRecord;
     private final String workflowId;
     private final List<Pact.ProviderState> providerStates;
     private final MockRestServiceServer mockRestServiceServer;
+    private final PactPlayback.WorkflowPlayback playback;
     private final ObjectStringConverter objectConverter;
     private int times = 1;
     private final Map<String, Matcher<? super List<String>>> additionalExpectedHeaders = new HashMap<>();
     private MediaType contentType;
     private String schema;
 
-    public ReturnExpect(RestRequestDescriptor restRequestDescriptor, File pactFile, String workflowId, List<Pact.ProviderState> providerStates, Boolean withoutRecord, MockRestServiceServer mockRestServiceServer, ObjectStringConverter objectConverter, MediaType contentType) {
+    public ReturnExpect(RestRequestDescriptor restRequestDescriptor, PactFileRecording recording, RecordingMode recordingMode, String workflowId, List<Pact.ProviderState> providerStates, Boolean withoutRecord, MockRestServiceServer mockRestServiceServer, PactPlayback.WorkflowPlayback playback, ObjectStringConverter objectConverter, MediaType contentType) {
         this.restRequestDescriptor = restRequestDescriptor;
-        this.pactFile = pactFile;
+        this.recording = recording;
+        this.recordingMode = recordingMode;
         this.withoutRecord = withoutRecord;
         this.workflowId = workflowId;
         this.providerStates = providerStates;
         this.mockRestServiceServer = mockRestServiceServer;
+        this.playback = playback;
         this.objectConverter = objectConverter;
         this.contentType = contentType;
     }
@@ -194,49 +202,13 @@ public class ReturnExpect<T> {
     }
 
     private void createRequestExpectation(final ResponseEntity entity, final Type type) {
+        PreparedExpectation expectation = new PreparedExpectation(entity, type);
+        if (playback != null) {
+            playback.expect(expectation, expectation, expectation.createDeclaredInteraction(), !withoutRecord, times);
+            return;
+        }
         for (int i = 1; i <= times; i++) {
-            String bodyContent = extractBodyContent(entity, type);
-
-            if (StringUtils.isNotBlank(schema)) {
-                assertThat(bodyContent, matchesSchema(schema));
-            }
-
-            mockRestServiceServer.expect(clientRequest -> {
-                MockClientHttpRequest mockRequest = (MockClientHttpRequest) clientRequest;
-                assertThat(mockRequest.getURI().toString(), containsString(urlencode(restRequestDescriptor.getUrl())));
-                assertThat(mockRequest.getMethod(), is(restRequestDescriptor.getMethod()));
-
-                MediaType contentType1 = mockRequest.getHeaders().getContentType();
-                String actualBody = mockRequest.getBodyAsString();
-                String expectedBody = extractBodyContent(restRequestDescriptor.getRequest());
-                if (contentType1 != null && "json".equalsIgnoreCase(contentType1.getSubtype())) {
-                    try {
-                        JSONAssert.assertEquals(expectedBody, actualBody, false);
-                    } catch (JSONException e) {
-                        assertEquals(expectedBody, actualBody, e.getMessage());
-                    }
-                } else {
-                    assertEquals(expectedBody, actualBody);
-                }
-
-                assertRequestHeaders(mockRequest.getHeaders(), restRequestDescriptor.getRequest(), additionalExpectedHeaders);
-            }).andRespond(clientRequest -> {
-                ClientHttpResponse response = MockRestResponseCreators
-                        .withStatus(entity.getStatusCode())
-                        .headers(entity.getHeaders())
-                        .contentType(getContentType(entity))
-                        .body(bodyContent).createResponse(clientRequest);
-                if (!withoutRecord) {
-                    try {
-                        Pact pact = getPactFile();
-                        getOrCreateWorkflowAndAddInteraction(pact, clientRequest, response);
-                        Pact.writePact(pact, pactFile, objectConverter);
-                    } catch (IOException ex) {
-                        throw new RuntimeException(ex);
-                    }
-                }
-                return response;
-            });
+            mockRestServiceServer.expect(expectation).andRespond(expectation);
         }
     }
 
@@ -252,7 +224,7 @@ public class ReturnExpect<T> {
         return response.getHeaders().getContentType();
     }
 
-    private void assertRequestHeaders(HttpHeaders actualHeaders, Object requestObject, Map<String, Matcher<? super List<String>>> additionalExpectedHeaders) {
+    private static Map<String, Matcher<? super List<String>>> expectedHeaders(Object requestObject, Map<String, Matcher<? super List<String>>> additionalExpectedHeaders) {
         Map<String, Matcher<? super List<String>>> expectedHeaders = new HashMap<>();
 
         if (requestObject != null && requestObject instanceof HttpEntity) {
@@ -263,35 +235,15 @@ public class ReturnExpect<T> {
         }
 
         expectedHeaders.putAll(additionalExpectedHeaders);
-
-        Set<String> headerNames = expectedHeaders.keySet();
-        for (String headerName : headerNames) {
-            Matcher<? super List<String>> headerValuesMatcher = expectedHeaders.get(headerName);
-            assertThat(format("Contains header %s", headerName), actualHeaders.containsKey(headerName), is(true));
-            assertThat(format("'%s' header value fails assertion", headerName), actualHeaders.get(headerName), headerValuesMatcher);
-        }
+        return expectedHeaders;
     }
 
-    private Pact getPactFile() throws IOException {
-        Pact pact;
-        if (pactFile.exists() && (pactFile.length() > 0)) {
-            pact = Pact.parse(FileUtils.readFileToString(pactFile, UTF_8), objectConverter);
-        } else {
-            pact = Pact.newPact(objectConverter);
+    private static void assertRequestHeaders(HttpHeaders actualHeaders, Map<String, Matcher<? super List<String>>> expectedHeaders) {
+        for (Entry<String, Matcher<? super List<String>>> expectedHeader : expectedHeaders.entrySet()) {
+            String headerName = expectedHeader.getKey();
+            assertThat(format("Contains header %s", headerName), actualHeaders.containsKey(headerName), is(true));
+            assertThat(format("'%s' header value fails assertion", headerName), actualHeaders.get(headerName), expectedHeader.getValue());
         }
-        return pact;
-    }
-
-    private void getOrCreateWorkflowAndAddInteraction(Pact pact, ClientHttpRequest clientRequest, ClientHttpResponse response) throws IOException {
-        String bodyString = StreamUtils.copyToString(response.getBody(), UTF_8);
-        response.getBody().reset();
-
-        Pact.Interaction interaction = new Pact.Interaction(
-                new Pact.InteractionRequest(restRequestDescriptor.getMethod(), urlencode(restRequestDescriptor.getUrl()), clientRequest.getHeaders(), extractBodyContent(restRequestDescriptor.getRequest())),
-                new Pact.InteractionResponse(response.getRawStatusCode(), response.getHeaders(), bodyString, schema),
-                objectConverter);
-        Pact.Workflow workflow = pact.getWorkflow(this.workflowId, this.providerStates);
-        workflow.addInteraction(interaction);
     }
 
     private String extractBodyContent(Object entity) {
@@ -315,4 +267,130 @@ public class ReturnExpect<T> {
     private static String urlencode(String path) {
         return UriUtils.encodeQuery(path, UTF_8);
     }
+
+    private static JSONCompareResult compareJson(Object expected, Object actual) throws JSONException {
+        if (expected instanceof JSONObject && actual instanceof JSONObject) {
+            return JSONCompare.compareJSON((JSONObject) expected, (JSONObject) actual, JSONCompareMode.LENIENT);
+        } else if (expected instanceof JSONArray && actual instanceof JSONArray) {
+            return JSONCompare.compareJSON((JSONArray) expected, (JSONArray) actual, JSONCompareMode.LENIENT);
+        } else if (expected instanceof JSONString && actual instanceof JSONString) {
+            return JSONCompare.compareJson((JSONString) expected, (JSONString) actual);
+        } else {
+            return new JSONCompareResult().fail("", expected, actual);
+        }
+    }
+
+    /**
+     * The expected request and the canned response of one expectation, worked out once and shared by each of its
+     * {@link #times(int) repetitions}. The parsed JSON of the expected body is only ever read, so it is safe to compare against
+     * from several requests.
+     */
+    private class PreparedExpectation implements IndexableRequestMatcher, ResponseCreator {
+
+        private final String url;
+        private final String requestBody;
+        private final Object requestJson;
+        private final JSONException requestJsonError;
+        private final Map<String, Matcher<? super List<String>>> requestHeaders;
+        private final int responseStatus;
+        private final String responseBody;
+        private final ResponseCreator responseCreator;
+
+        PreparedExpectation(ResponseEntity entity, Type type) {
+            responseStatus = entity.getStatusCodeValue();
+            responseBody = extractBodyContent(entity, type);
+            if (StringUtils.isNotBlank(schema)) {
+                assertThat(responseBody, matchesSchema(schema));
+            }
+
+            url = urlencode(restRequestDescriptor.getUrl());
+            requestBody = extractBodyContent(restRequestDescriptor.getRequest());
+            requestHeaders = expectedHeaders(restRequestDescriptor.getRequest(), additionalExpectedHeaders);
+
+            Object json = null;
+            JSONException jsonError = null;
+            try {
+                json = JSONParser.parseJSON(requestBody);
+            } catch (JSONException e) {
+                jsonError = e;
+            }
+            requestJson = json;
+            requestJsonError = jsonError;
+
+            responseCreator = MockRestResponseCreators
+                    .withStatus(entity.getStatusCode())
+                    .headers(entity.getHeaders())
+                    .contentType(getContentType(entity))
+                    .body(responseBody);
+        }
+
+        @Override
+        public HttpMethod getExpectedMethod() {
+            return restRequestDescriptor.getMethod();
+        }
+
+        @Override
+        public String getExpectedUri() {
+            return url;
+        }
+
+        @Override
+        public void match(ClientHttpRequest clientRequest) throws IOException {
+            MockClientHttpRequest mockRequest = (MockClientHttpRequest) clientRequest;
+            assertThat(mockRequest.getURI().toString(), containsString(url));
+            assertThat(mockRequest.getMethod(), is(restRequestDescriptor.getMethod()));
+
+            MediaType contentType1 = mockRequest.getHeaders().getContentType();
+            String actualBody = mockRequest.getBodyAsString();
+            if (contentType1 != null && "json".equalsIgnoreCase(contentType1.getSubtype())) {
+                assertJsonBody(actualBody);
+            } else {
+                assertEquals(requestBody, actualBody);
+            }
+
+            assertRequestHeaders(mockRequest.getHeaders(), requestHeaders);
+        }
+
+        private void assertJsonBody(String actualBody) {
+            if (requestJsonError != null) {
+                assertEquals(requestBody, actualBody, requestJsonError.getMessage());
+                return;
+            }
+            try {
+                JSONCompareResult result = compareJson(requestJson, JSONParser.parseJSON(actualBody));
+                if (result.failed()) {
+                    throw new AssertionError(result.getMessage());
+                }
+            } catch (JSONException e) {
+                assertEquals(requestBody, actualBody, e.getMessage());
+            }
+        }
+
+        @Override
+        public ClientHttpResponse createResponse(ClientHttpRequest clientRequest) throws IOException {
+            ClientHttpResponse response = responseCreator.createResponse(clientRequest);
+            if (!withoutRecord) {
+                try {
+                    recording.record(recordingMode, workflowId, providerStates, createInteraction(clientRequest, response));
+                } catch (IOException ex) {
+                    throw new RuntimeException(ex);
+                }
+            }
+            return response;
+        }
+
+        private Pact.Interaction createDeclaredInteraction() {
+            return new Pact.Interaction(
+                    new Pact.InteractionRequest(restRequestDescriptor.getMethod(), url, null, requestBody),
+                    new Pact.InteractionResponse(responseStatus, null, responseBody, schema),
+                    objectConverter);
+        }
+
+        private Pact.Interaction createInteraction(ClientHttpRequest clientRequest, ClientHttpResponse response) throws IOException {
+            return new Pact.Interaction(
+                    new Pact.InteractionRequest(restRequestDescriptor.getMethod(), url, clientRequest.getHeaders(), requestBody),
+                    new Pact.InteractionResponse(response.getRawStatusCode(), response.getHeaders(), responseBody, schema),
+                    objectConverter);
+        }
+    }
 }
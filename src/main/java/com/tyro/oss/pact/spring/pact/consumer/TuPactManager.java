@@ -37,6 +37,7 @@ import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.RestTemplate;
 
 import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Field;
 import java.util.HashSet;
 import java.util.List;
@@ -44,16 +45,24 @@ import java.util.Set;
 
 public class TuPactManager implements BeforeEachCallback, AfterEachCallback {
 
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(TuPactManager.class);
+
     protected String outputPath = "./target/pact";
 
     protected ObjectStringConverter converter = new GsonStringConverter(new GsonBuilder().create());
     private MediaType contentType = MediaType.APPLICATION_JSON;
-
-    private Set<TuPactRecordingServer> servers;
+    private RecordingMode recordingMode = RecordingMode.DEFERRED;
+    private boolean unorderedExpectations = false;
+    private boolean playback = false;
 
     @Override
     public void beforeEach(ExtensionContext context) {
-        servers = new HashSet<>();
+        Set<TuPactRecordingServer> servers = new HashSet<>();
+        context.getStore(NAMESPACE).put(TuPactRecordingServer.class, servers);
+
+        if (recordingMode.writesAtEndOfRun()) {
+            context.getRoot().getStore(NAMESPACE).getOrComputeIfAbsent(PactFileRegistry.class.getName(), key -> new PactFileRegistryFlush());
+        }
 
         context.getTestClass().ifPresent(testClass -> {
             List<Field> serverFields = AnnotationSupport.findAnnotatedFields(testClass, PactServer.class);
@@ -66,7 +75,13 @@ public class TuPactManager implements BeforeEachCallback, AfterEachCallback {
                     String expression = annotation.bean();
                     RestTemplate restTemplate = evaluateRestTemplate(context.getTestInstance(), expression);
 
-                    TuPactRecordingServer server = createServer(fileName, restTemplate);
+                    TuPactRecordingServer server = createServer(fileName, restTemplate).withRecordingMode(recordingMode);
+                    if (unorderedExpectations) {
+                        server.withUnorderedExpectations();
+                    }
+                    if (playback) {
+                        server.withPlayback();
+                    }
                     servers.add(server);
                     serverField.set(context.getTestInstance(), server);
                 } catch (IllegalAccessException e) {
@@ -81,8 +96,12 @@ public class TuPactManager implements BeforeEachCallback, AfterEachCallback {
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public void afterEach(ExtensionContext context) throws Exception {
-        servers.forEach(TuPactRecordingServer::close);
+        Set<TuPactRecordingServer> servers = context.getStore(NAMESPACE).remove(TuPactRecordingServer.class, Set.class);
+        if (servers != null) {
+            servers.forEach(TuPactRecordingServer::close);
+        }
     }
 
     public TuPactManager useOutputPath(String path) {
@@ -100,6 +119,21 @@ public class TuPactManager implements BeforeEachCallback, AfterEachCallback {
         return this;
     }
 
+    public TuPactManager useRecordingMode(RecordingMode recordingMode) {
+        this.recordingMode = recordingMode;
+        return this;
+    }
+
+    public TuPactManager useUnorderedExpectations() {
+        this.unorderedExpectations = true;
+        return this;
+    }
+
+    public TuPactManager usePlayback() {
+        this.playback = true;
+        return this;
+    }
+
     private RestTemplate evaluateRestTemplate(Object testInstance, String expression) {
         final ApplicationContext applicationContext = getApplicationContext(testInstance);
 
@@ -130,4 +164,12 @@ public class TuPactManager implements BeforeEachCallback, AfterEachCallback {
     protected TuPactRecordingServer createServer(File file, RestTemplate restTemplate) throws IllegalAccessException {
         return TuPactRecordingServer.createServer(restTemplate, file, this.converter, this.contentType);
     }
+
+    private static class PactFileRegistryFlush implements ExtensionContext.Store.CloseableResource {
+
+        @Override
+        public void close() throws IOException {
+            PactFileRegistry.getInstance().flushAll();
+        }
+    }
 }
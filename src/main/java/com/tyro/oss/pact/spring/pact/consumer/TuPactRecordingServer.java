@@ -30,12 +30,13 @@ import org.springframework.test.web.client.MockRestServiceServer;
 import org.springframework.web.client.RestTemplate;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
 public class TuPactRecordingServer {
 
-    private final File pactFile;
+    private final PactFileRecording recording;
     private final ObjectStringConverter objectConverter;
     private final RestTemplate restTemplate;
     private final ClientHttpRequestFactory originalRequestFactory;
@@ -46,14 +47,22 @@ public class TuPactRecordingServer {
     private MockRestServiceServer mockRestServiceServer;
 
     private boolean withoutRecording = false;
+    private boolean unorderedExpectations = false;
+    private PactPlayback playback;
+    private PactPlayback.WorkflowPlayback workflowPlayback;
+    private final List<PactPlayback.WorkflowPlayback> playedWorkflows = new ArrayList<>();
+    private RecordingMode recordingMode = RecordingMode.BUFFERED;
 
     protected TuPactRecordingServer(RestTemplate restTemplate, File pactFile, ObjectStringConverter objectConverter, MediaType contentType) {
         this.restTemplate = restTemplate;
-        this.pactFile = pactFile;
+        this.recording = PactFileRegistry.getInstance().getRecording(pactFile, objectConverter);
         this.objectConverter = objectConverter;
         originalRequestFactory = restTemplate.getRequestFactory();
-        mockRestServiceServer = MockRestServiceServer.createServer(restTemplate);
+        mockRestServiceServer = createMockServer();
         this.contentType = contentType;
+        if (Boolean.getBoolean(PactPlayback.PLAYBACK_PROPERTY)) {
+            withPlayback();
+        }
     }
 
     public static TuPactRecordingServer createServer(RestTemplate restTemplate, File pactFile) {
@@ -75,6 +84,7 @@ public class TuPactRecordingServer {
      */
     public void startWorkflow(String id) {
         this.workflowId = id;
+        startPlayback();
     }
 
     /**
@@ -103,7 +113,46 @@ public class TuPactRecordingServer {
 
         boolean withoutRecordingThisTime = this.withoutRecording;
         this.withoutRecording = false;
-        return new ReturnExpect<>(descriptor, pactFile, workflowId, providerStates, withoutRecordingThisTime, mockRestServiceServer, objectConverter, contentType);
+        MockRestServiceServer expectationServer = workflowPlayback == null ? mockRestServiceServer : null;
+        return new ReturnExpect<>(descriptor, recording, recordingMode, workflowId, providerStates, withoutRecordingThisTime, expectationServer, workflowPlayback, objectConverter, contentType);
+    }
+
+    /**
+     * Choose when recorded interactions are written to the pact file. Defaults to {@link RecordingMode#BUFFERED}.
+     *
+     * @param recordingMode The recording mode to use for subsequent expectations
+     * @return The same recording instance with the recording mode set.
+     */
+    public TuPactRecordingServer withRecordingMode(RecordingMode recordingMode) {
+        this.recordingMode = recordingMode;
+        return this;
+    }
+
+    /**
+     * Accept the expected requests in any order and from any number of threads, finding each one by its method and path rather
+     * than checking the expectations one by one. Requests to the same path are told apart by their bodies. Call this before
+     * setting up any expectations.
+     *
+     * @return The same recording instance with unordered expectations.
+     */
+    public TuPactRecordingServer withUnorderedExpectations() {
+        this.unorderedExpectations = true;
+        this.mockRestServiceServer = createMockServer();
+        bindPlayback();
+        return this;
+    }
+
+    /**
+     * Answer expected requests with the responses already recorded for the current workflow in the pact file, instead of recording
+     * them again. Each expectation must match a recorded interaction, and every recorded interaction must be requested before the
+     * server is closed. Setting the {@value PactPlayback#PLAYBACK_PROPERTY} system property to true plays back every server.
+     *
+     * @return The same recording instance in playback mode.
+     */
+    public TuPactRecordingServer withPlayback() {
+        this.playback = PactPlayback.forFile(recording.getPactFile(), objectConverter);
+        startPlayback();
+        return this;
     }
 
     /**
@@ -117,18 +166,82 @@ public class TuPactRecordingServer {
     }
 
     /**
-     * Verify all expectations were fulfilled and remove them.
+     * Verify all expectations were fulfilled, remove them and write any recorded interactions to the pact file,
+     * unless the recording mode defers writing to the end of the test run.
      */
     public void reset() {
-        this.mockRestServiceServer.verify();
-        this.mockRestServiceServer = MockRestServiceServer.createServer(restTemplate);
+        if (workflowPlayback != null) {
+            workflowPlayback.verify(false);
+            return;
+        }
+        verifyThenFlush(() -> {
+            this.mockRestServiceServer.verify();
+            this.mockRestServiceServer = createMockServer();
+        });
     }
 
     /**
-     * Verify all expectations were fulfilled and restore the RestTemplate to its original state.
+     * Verify all expectations were fulfilled, restore the RestTemplate to its original state and write any recorded interactions to the pact file,
+     * unless the recording mode defers writing to the end of the test run.
      */
     public void close() {
-        this.mockRestServiceServer.verify();
-        this.restTemplate.setRequestFactory(originalRequestFactory);
+        if (playback != null) {
+            try {
+                playedWorkflows.forEach(played -> played.verify(true));
+            } finally {
+                this.restTemplate.setRequestFactory(originalRequestFactory);
+            }
+            return;
+        }
+        verifyThenFlush(() -> {
+            this.mockRestServiceServer.verify();
+            this.restTemplate.setRequestFactory(originalRequestFactory);
+        });
+    }
+
+    private void startPlayback() {
+        if (playback != null && workflowId != null) {
+            workflowPlayback = playback.playWorkflow(workflowId);
+            playedWorkflows.add(workflowPlayback);
+            bindPlayback();
+        }
+    }
+
+    private void bindPlayback() {
+        if (workflowPlayback != null) {
+            restTemplate.setRequestFactory(workflowPlayback);
+        }
+    }
+
+    private MockRestServiceServer createMockServer() {
+        if (unorderedExpectations) {
+            return MockRestServiceServer.bindTo(restTemplate).build(new IndexedRequestExpectationManager());
+        }
+        return MockRestServiceServer.createServer(restTemplate);
+    }
+
+    private void verifyThenFlush(Runnable verification) {
+        try {
+            verification.run();
+        } catch (Throwable verificationFailure) {
+            try {
+                flushRecording();
+            } catch (RuntimeException flushFailure) {
+                verificationFailure.addSuppressed(flushFailure);
+            }
+            throw verificationFailure;
+        }
+        flushRecording();
+    }
+
+    private void flushRecording() {
+        if (recordingMode.writesAtEndOfRun()) {
+            return;
+        }
+        try {
+            recording.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write pact file " + recording.getPactFile(), e);
+        }
     }
 }
@@ -19,20 +19,31 @@
  */
 package com.tyro.oss.pact.spring.pact.model;
 
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.tyro.oss.pact.spring.util.ObjectStringConverter;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import static java.util.Collections.unmodifiableList;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
@@ -46,14 +57,108 @@ public class Pact {
 
     private transient String displayName;
 
-    private final Map<String, Workflow> workFlows = new HashMap<>();
+    private final ConcurrentNavigableMap<String, Workflow> workFlows = new ConcurrentSkipListMap<>();
 
     public static Pact newPact(ObjectStringConverter jsonConverter) {
         return new Pact(new ArrayList<>(), jsonConverter);
     }
 
     public static Pact parse(String json, ObjectStringConverter jsonConverter) {
-        Pact pact = jsonConverter.fromString(json, Pact.class);
+        return initialise(jsonConverter.fromString(json, Pact.class), jsonConverter);
+    }
+
+    /**
+     * Parse a pact as it is read, without holding the whole document in memory. The reader is left open.
+     */
+    public static Pact parse(Reader json, ObjectStringConverter jsonConverter) {
+        return initialise(jsonConverter.fromReader(json, Pact.class), jsonConverter);
+    }
+
+    /**
+     * Parse a UTF-8 encoded pact as it is read, without holding the whole document in memory. The stream is left open.
+     */
+    public static Pact parse(InputStream json, ObjectStringConverter jsonConverter) {
+        return parse(new BufferedReader(new InputStreamReader(json, UTF_8)), jsonConverter);
+    }
+
+    /**
+     * Parse a pact without deserialising the interactions of its workflows. Each workflow keeps the JSON of its
+     * interactions and only deserialises them when they are first read, so workflows that are never replayed cost little
+     * more than their JSON. The reader is left open.
+     */
+    public static Pact parseLazily(Reader json, ObjectStringConverter jsonConverter) {
+        Pact pact = new Pact(null, jsonConverter);
+        try {
+            JsonReader reader = new JsonReader(json);
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!"workFlows".equals(reader.nextName())) {
+                    reader.skipValue();
+                    continue;
+                }
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String key = reader.nextName();
+                    pact.workFlows.put(key, readWorkflow(reader, key, jsonConverter));
+                }
+                reader.endObject();
+            }
+            reader.endObject();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to parse pact", e);
+        }
+        return pact;
+    }
+
+    /**
+     * Parse a UTF-8 encoded pact without deserialising the interactions of its workflows. The stream is left open.
+     */
+    public static Pact parseLazily(InputStream json, ObjectStringConverter jsonConverter) {
+        return parseLazily(new BufferedReader(new InputStreamReader(json, UTF_8)), jsonConverter);
+    }
+
+    private static Workflow readWorkflow(JsonReader reader, String key, ObjectStringConverter jsonConverter) throws IOException {
+        String id = key;
+        List<ProviderState> providerStates = null;
+        String interactions = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    id = readString(reader);
+                    break;
+                case "providerStates":
+                    ProviderState[] states = jsonConverter.fromString(readJson(reader), ProviderState[].class);
+                    providerStates = states == null ? null : new ArrayList<>(Arrays.asList(states));
+                    break;
+                case "interactions":
+                    interactions = readJson(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        Workflow workflow = new Workflow(id, providerStates, jsonConverter);
+        workflow.unparsedInteractions = interactions;
+        return workflow;
+    }
+
+    private static String readString(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+
+    private static String readJson(JsonReader reader) {
+        return JsonParser.parseReader(reader).toString();
+    }
+
+    private static Pact initialise(Pact pact, ObjectStringConverter jsonConverter) {
         pact.internalJsonConverter = jsonConverter;
 
         for (Map.Entry<String, Workflow> stringWorkflowEntry : pact.getWorkFlows().entrySet()) {
@@ -65,7 +170,22 @@ public class Pact {
     }
 
     public static void writePact(Pact pact, File pactFile, ObjectStringConverter jsonConverter) throws IOException {
-        FileUtils.writeStringToFile(pactFile, jsonConverter.fromObject(pact), UTF_8);
+        FileUtils.writeStringToFile(pactFile, toJson(pact, jsonConverter), UTF_8);
+    }
+
+    /**
+     * Write a pact to a writer, which is flushed but left open.
+     */
+    public static void writePact(Pact pact, Writer pactWriter, ObjectStringConverter jsonConverter) throws IOException {
+        pactWriter.write(toJson(pact, jsonConverter));
+        pactWriter.flush();
+    }
+
+    private static String toJson(Pact pact, ObjectStringConverter jsonConverter) {
+        for (Workflow workflow : pact.workFlows.values()) {
+            workflow.parseInteractions();
+        }
+        return jsonConverter.fromObject(pact);
     }
 
     private Pact(List<Interaction> interactions, ObjectStringConverter jsonConverter) {
@@ -78,13 +198,7 @@ public class Pact {
     }
 
     public Workflow getWorkflow(String id, List<ProviderState> providerStates) {
-        if (workFlows.containsKey(id)) {
-            return workFlows.get(id);
-        } else {
-            Workflow workflow = new Workflow(id, providerStates, internalJsonConverter);
-            workFlows.put(id, workflow);
-            return workflow;
-        }
+        return workFlows.computeIfAbsent(id, workflowId -> new Workflow(workflowId, providerStates, internalJsonConverter));
     }
 
     public Map<String, Workflow> getWorkFlows() {
@@ -121,6 +235,9 @@ public class Pact {
         private final List<ProviderState> providerStates;
         private final List<Interaction> interactions = new ArrayList<>();
         private final transient ObjectStringConverter jsonConverter;
+        private transient String unparsedInteractions;
+        private transient List<Interaction> interactionsView;
+        private transient int hash;
 
         public Workflow(String id, List<ProviderState> providerStates, ObjectStringConverter jsonConverter) {
             this.id = id;
@@ -128,13 +245,24 @@ public class Pact {
             this.jsonConverter = jsonConverter;
         }
 
-        public List<Interaction> getInteractions() {
-            return interactions;
+        /**
+         * The interactions of this workflow, as an unmodifiable snapshot shared between callers until the next
+         * {@link #addInteraction(Interaction)}.
+         */
+        public synchronized List<Interaction> getInteractions() {
+            parseInteractions();
+            if (interactionsView == null) {
+                interactionsView = unmodifiableList(new ArrayList<>(interactions));
+            }
+            return interactionsView;
         }
 
-        public void addInteraction(Interaction interaction) {
+        public synchronized void addInteraction(Interaction interaction) {
+            parseInteractions();
             interaction.setJsonConverter(jsonConverter);
             interactions.add(interaction);
+            interactionsView = null;
+            hash = 0;
         }
 
         public String getId() {
@@ -145,14 +273,62 @@ public class Pact {
             return providerStates;
         }
 
+        /**
+         * The JSON of the interactions of a lazily parsed workflow.
+         *
+         * @return The JSON array of interactions, or null once they have been deserialised
+         */
+        public synchronized String unparsedInteractions() {
+            return unparsedInteractions;
+        }
+
+        private synchronized void parseInteractions() {
+            if (unparsedInteractions == null) {
+                return;
+            }
+            Interaction[] parsedInteractions = jsonConverter.fromString(unparsedInteractions, Interaction[].class);
+            if (parsedInteractions != null) {
+                for (Interaction interaction : parsedInteractions) {
+                    interaction.setJsonConverter(jsonConverter);
+                    interactions.add(interaction);
+                }
+            }
+            unparsedInteractions = null;
+            interactionsView = null;
+            hash = 0;
+        }
+
+        /**
+         * Workflows are equal when their provider states and interactions are, regardless of their ids.
+         */
         @Override
         public boolean equals(Object other) {
-            return EqualsBuilder.reflectionEquals(this, other, "id");
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Workflow)) {
+                return false;
+            }
+            Workflow that = (Workflow) other;
+            if (hashCode() != that.hashCode() || !Objects.equals(providerStates, that.providerStates)) {
+                return false;
+            }
+            List<Interaction> otherInteractions = that.getInteractions();
+            synchronized (this) {
+                parseInteractions();
+                return interactions.equals(otherInteractions);
+            }
         }
 
         @Override
-        public int hashCode() {
-            return HashCodeBuilder.reflectionHashCode(this, "id");
+        public synchronized int hashCode() {
+            parseInteractions();
+            int result = hash;
+            if (result == 0) {
+                result = 31 * Objects.hashCode(providerStates) + interactions.hashCode();
+                hash = result;
+            }
+            return result;
         }
     }
 
@@ -166,6 +342,7 @@ public class Pact {
         }
 
         private transient ObjectStringConverter jsonConverter;
+        private transient int hash;
 
         public Interaction(InteractionRequest request, InteractionResponse response, ObjectStringConverter jsonConverter) {
             this.request = request;
@@ -188,12 +365,26 @@ public class Pact {
 
         @Override
         public boolean equals(Object other) {
-            return EqualsBuilder.reflectionEquals(this, other);
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Interaction)) {
+                return false;
+            }
+            Interaction that = (Interaction) other;
+            return hashCode() == that.hashCode()
+                    && Objects.equals(request, that.request)
+                    && Objects.equals(response, that.response);
         }
 
         @Override
         public int hashCode() {
-            return HashCodeBuilder.reflectionHashCode(this);
+            int result = hash;
+            if (result == 0) {
+                result = Objects.hash(request, response);
+                hash = result;
+            }
+            return result;
         }
     }
 
@@ -203,6 +394,7 @@ public class Pact {
         private final String uri;
         private final HttpHeaders headers;
         private final String body;
+        private transient int hash;
 
         public InteractionRequest(HttpMethod method, String uri, HttpHeaders headers, String body) {
             this.method = method;
@@ -227,15 +419,30 @@ public class Pact {
             return body;
         }
 
-
         @Override
         public boolean equals(Object other) {
-            return EqualsBuilder.reflectionEquals(this, other);
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof InteractionRequest)) {
+                return false;
+            }
+            InteractionRequest that = (InteractionRequest) other;
+            return hashCode() == that.hashCode()
+                    && method == that.method
+                    && Objects.equals(uri, that.uri)
+                    && Objects.equals(headers, that.headers)
+                    && Objects.equals(body, that.body);
         }
 
         @Override
         public int hashCode() {
-            return HashCodeBuilder.reflectionHashCode(this);
+            int result = hash;
+            if (result == 0) {
+                result = Objects.hash(method == null ? null : method.name(), uri, headers, body);
+                hash = result;
+            }
+            return result;
         }
     }
 
@@ -245,6 +452,7 @@ public class Pact {
         private final HttpHeaders headers;
         private final String body;
         private final String schema;
+        private transient int hash;
 
         public InteractionResponse(int status, HttpHeaders headers, String body, String schema) {
             this.status = status;
@@ -271,18 +479,34 @@ public class Pact {
 
         @Override
         public boolean equals(Object other) {
-            return EqualsBuilder.reflectionEquals(this, other);
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof InteractionResponse)) {
+                return false;
+            }
+            InteractionResponse that = (InteractionResponse) other;
+            return status == that.status
+                    && hashCode() == that.hashCode()
+                    && Objects.equals(headers, that.headers)
+                    && Objects.equals(body, that.body)
+                    && Objects.equals(schema, that.schema);
         }
 
         @Override
         public int hashCode() {
-            return HashCodeBuilder.reflectionHashCode(this);
+            int result = hash;
+            if (result == 0) {
+                result = Objects.hash(status, headers, body, schema);
+                hash = result;
+            }
+            return result;
         }
     }
 
     public static class ProviderState {
 
-        private String description;
+        private final String description;
 
         public void setJsonConverter(ObjectStringConverter jsonConverter) {
             this.jsonConverter = jsonConverter;
@@ -290,7 +514,8 @@ public class Pact {
 
         private transient ObjectStringConverter jsonConverter;
 
-        private List<ProviderArgument> providerArguments = new ArrayList<>();
+        private final List<ProviderArgument> providerArguments = new ArrayList<>();
+        private transient int hash;
 
         public ProviderState(String description, ObjectStringConverter jsonConverter, Object... states) {
             this.description = description;
@@ -318,18 +543,33 @@ public class Pact {
 
         @Override
         public boolean equals(Object other) {
-            return EqualsBuilder.reflectionEquals(this, other);
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof ProviderState)) {
+                return false;
+            }
+            ProviderState that = (ProviderState) other;
+            return hashCode() == that.hashCode()
+                    && Objects.equals(description, that.description)
+                    && Objects.equals(providerArguments, that.providerArguments);
         }
 
         @Override
         public int hashCode() {
-            return HashCodeBuilder.reflectionHashCode(this);
+            int result = hash;
+            if (result == 0) {
+                result = Objects.hash(description, providerArguments);
+                hash = result;
+            }
+            return result;
         }
     }
 
     private static class ProviderArgument {
-        private String serializedStateObject;
-        private String stateObjectClassName;
+        private final String serializedStateObject;
+        private final String stateObjectClassName;
+        private transient int hash;
 
         private ProviderArgument(String serializedStateObject, String stateObjectClassName) {
             this.serializedStateObject = serializedStateObject;
@@ -344,15 +584,28 @@ public class Pact {
             return stateObjectClassName;
         }
 
-
         @Override
         public boolean equals(Object other) {
-            return EqualsBuilder.reflectionEquals(this, other);
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof ProviderArgument)) {
+                return false;
+            }
+            ProviderArgument that = (ProviderArgument) other;
+            return hashCode() == that.hashCode()
+                    && Objects.equals(serializedStateObject, that.serializedStateObject)
+                    && Objects.equals(stateObjectClassName, that.stateObjectClassName);
         }
 
         @Override
         public int hashCode() {
-            return HashCodeBuilder.reflectionHashCode(this);
+            int result = hash;
+            if (result == 0) {
+                result = Objects.hash(serializedStateObject, stateObjectClassName);
+                hash = result;
+            }
+            return result;
         }
     }
 }
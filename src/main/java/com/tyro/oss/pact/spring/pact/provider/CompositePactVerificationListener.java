@@ -0,0 +1,68 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.provider;
+
+import com.tyro.oss.pact.spring.pact.model.Pact;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+class CompositePactVerificationListener implements PactVerificationListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CompositePactVerificationListener.class);
+
+    private final List<PactVerificationListener> listeners;
+
+    CompositePactVerificationListener(List<PactVerificationListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    @Override
+    public void pactsResolved(Class<?> testClass, List<Pact> pacts, long elapsedNanos) {
+        notifyListeners(listener -> listener.pactsResolved(testClass, pacts, elapsedNanos));
+    }
+
+    @Override
+    public void providerStateSetUp(PactTestContext context, Pact.ProviderState providerState, long elapsedNanos) {
+        notifyListeners(listener -> listener.providerStateSetUp(context, providerState, elapsedNanos));
+    }
+
+    @Override
+    public void interactionStepCompleted(PactTestContext context, Pact.Interaction interaction, InteractionStep step, long elapsedNanos, long bytes) {
+        notifyListeners(listener -> listener.interactionStepCompleted(context, interaction, step, elapsedNanos, bytes));
+    }
+
+    @Override
+    public void workflowVerified(PactTestContext context, long elapsedNanos, Throwable failure) {
+        notifyListeners(listener -> listener.workflowVerified(context, elapsedNanos, failure));
+    }
+
+    private void notifyListeners(Consumer<PactVerificationListener> notification) {
+        for (PactVerificationListener listener : listeners) {
+            try {
+                notification.accept(listener);
+            } catch (RuntimeException e) {
+                LOG.warn("Pact verification listener " + listener.getClass().getName() + " failed", e);
+            }
+        }
+    }
+}
@@ -19,22 +19,38 @@
  */
 package com.tyro.oss.pact.spring.pact.provider;
 
+import com.tyro.oss.pact.spring.pact.PactBrokerClient;
 import com.tyro.oss.pact.spring.pact.PactBrokerUrlSource;
 import com.tyro.oss.pact.spring.pact.model.Pact;
 import com.tyro.oss.pact.spring.pact.provider.annotations.PactDefinition;
 import com.tyro.oss.pact.spring.util.ObjectStringConverter;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.asList;
@@ -45,14 +61,16 @@ public class DefaultPactResolver implements PactResolver {
 
     private static final Logger LOG = LoggerFactory.getLogger(DefaultPactResolver.class);
 
-    public static final int PACT_DOWNLOAD_TIMEOUT_MILLIS = 5000;
+    public static final int PACT_DOWNLOAD_TIMEOUT_MILLIS = PactBrokerUrlSource.DEFAULT_TIMEOUT_MILLIS;
+
+    private final boolean overridesDownloadPact = overrides("downloadPact", PactDefinition.class, String.class);
+    private final boolean overridesLoadPactFile = overrides("loadPactFile", String.class);
 
     @Override
     public List<Pact> resolvePacts(final PactDefinition pactDefinition, final ObjectStringConverter jsonConverter) throws Exception {
 
         if (!StringUtils.isEmpty(pactDefinition.localPactFilePath())) {
-            String pactJson = loadPactFile(pactDefinition.localPactFilePath());
-            Pact pact = Pact.parse(pactJson, jsonConverter);
+            Pact pact = loadPact(pactDefinition.localPactFilePath(), jsonConverter);
 
             pact.setDisplayVersion("local");
             pact.setDisplayName(pactDefinition.consumer() + "-local");
@@ -60,19 +78,39 @@ public class DefaultPactResolver implements PactResolver {
             return singletonList(pact);
         }
 
-        return getPactVersionsToRun(pactDefinition).stream()
-                .map(version -> resolvePact(pactDefinition, version, jsonConverter))
-                .collect(toList());
+        List<String> versions = getPactVersionsToRun(pactDefinition);
+        int threads = Math.min(versions.size(), new PactBrokerUrlSource().getDownloadThreads());
+        if (threads <= 1) {
+            return versions.stream()
+                    .map(version -> resolvePact(pactDefinition, version, jsonConverter))
+                    .collect(toList());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, daemonThreads("pact-download"));
+        try {
+            List<Future<Pact>> downloads = new ArrayList<>();
+            for (String version : versions) {
+                downloads.add(executor.submit(() -> resolvePact(pactDefinition, version, jsonConverter)));
+            }
+
+            List<Pact> pacts = new ArrayList<>();
+            for (Future<Pact> download : downloads) {
+                pacts.add(await(download));
+            }
+            return pacts;
+        } finally {
+            executor.shutdownNow();
+        }
     }
 
     protected Pact resolvePact(PactDefinition pactDefinition, String version, ObjectStringConverter jsonConverter) {
-        ResponseEntity<String> response = downloadPact(pactDefinition, version);
+        ResponseEntity<Pact> response = downloadPact(pactDefinition, version, jsonConverter);
 
         if (response == null) {
             throw new IllegalStateException("Unable to successfully resolve pact file from any broker");
         }
 
-        Pact pact = Pact.parse(response.getBody(), jsonConverter);
+        Pact pact = response.getBody();
         if (response.getHeaders().get("X-Pact-Consumer-Version") != null) {
             pact.setNumericVersion(response.getHeaders().get("X-Pact-Consumer-Version").get(0));
         } else {
@@ -84,10 +122,48 @@ public class DefaultPactResolver implements PactResolver {
         return pact;
     }
 
-    protected ResponseEntity<String> downloadPact(PactDefinition pactDefinition, String version) {
+    protected ResponseEntity<Pact> downloadPact(PactDefinition pactDefinition, String version, ObjectStringConverter jsonConverter) {
+        if (overridesDownloadPact) {
+            ResponseEntity<String> response = downloadPact(pactDefinition, version);
+            return response == null ? null : new ResponseEntity<>(Pact.parse(response.getBody(), jsonConverter), response.getHeaders(), response.getStatusCode());
+        }
+
         PactBrokerUrlSource pactBrokerUrlSource = new PactBrokerUrlSource();
+        PactCache pactCache = createPactCache(pactBrokerUrlSource);
+        PactCache.CachedPact cachedPact = pactCache == null ? null : pactCache.get(pactDefinition.provider(), pactDefinition.consumer(), version);
+
+        if (pactBrokerUrlSource.isOffline()) {
+            if (cachedPact == null) {
+                throw new IllegalStateException(String.format("Pact [%s] for %s is not in the cache and brokers are offline", version, pactDefinition.consumer()));
+            }
+            return cachedPact.toResponseEntity(jsonConverter);
+        }
+        if (cachedPact != null && isPinnedVersion(version)) {
+            LOG.info(String.format("Using cached pact [%s] from %s", version, pactCache.getDirectory()));
+            return cachedPact.toResponseEntity(jsonConverter);
+        }
 
-        for (String eachUrl : pactBrokerUrlSource.getPactUrlsToDownloadPacts()) {
+        HttpHeaders requestHeaders = cachedPact == null ? new HttpHeaders() : cachedPact.getRevalidationHeaders();
+        requestHeaders.setAccept(asList(MediaType.APPLICATION_JSON, MediaType.ALL));
+        ResponseExtractor<ResponseEntity<Pact>> pactExtractor = pactExtractor(pactDefinition, version, pactCache, jsonConverter);
+        ResponseEntity<Pact> response = downloadPactFromBrokers(pactDefinition, version, requestHeaders, pactExtractor, pactBrokerUrlSource);
+
+        if (response != null && response.getStatusCode() == HttpStatus.NOT_MODIFIED && cachedPact != null) {
+            LOG.info(String.format("Pact [%s] has not changed since it was cached", version));
+            return cachedPact.toResponseEntity(jsonConverter);
+        }
+        return response;
+    }
+
+    /**
+     * Download a pact as a string. Only called when a subclass overrides it, in which case it replaces the streaming download.
+     *
+     * @deprecated Override {@link #downloadPact(PactDefinition, String, ObjectStringConverter)} instead, which parses the pact as
+     * it is downloaded and uses the pact cache.
+     */
+    @Deprecated
+    protected ResponseEntity<String> downloadPact(PactDefinition pactDefinition, String version) {
+        for (String eachUrl : new PactBrokerUrlSource().getPactUrlsToDownloadPacts()) {
             try {
                 LOG.info(String.format("Downloading pact [%s] from broker at: %s", version, eachUrl));
                 return createRestTemplate().getForEntity(pactUrl(pactDefinition, version, eachUrl), String.class);
@@ -99,22 +175,149 @@ public class DefaultPactResolver implements PactResolver {
         return null;
     }
 
+    /**
+     * Parses the pact as it is streamed from the broker, or from disk once it has been streamed into the cache, so the
+     * document is never held in memory as a string.
+     */
+    private ResponseExtractor<ResponseEntity<Pact>> pactExtractor(PactDefinition pactDefinition, String version, PactCache pactCache, ObjectStringConverter jsonConverter) {
+        return response -> {
+            HttpHeaders headers = response.getHeaders();
+            if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+            }
+            if (pactCache == null) {
+                return new ResponseEntity<>(Pact.parseLazily(response.getBody(), jsonConverter), headers, response.getStatusCode());
+            }
+            return pactCache.put(pactDefinition.provider(), pactDefinition.consumer(), version, headers, response.getBody()).toResponseEntity(jsonConverter);
+        };
+    }
+
+    protected PactCache createPactCache(PactBrokerUrlSource pactBrokerUrlSource) {
+        return pactBrokerUrlSource.isCacheEnabled() ? new PactCache(pactBrokerUrlSource.getCacheDirectory()) : null;
+    }
+
+    protected boolean isPinnedVersion(String version) {
+        return !version.startsWith("latest");
+    }
+
+    private ResponseEntity<Pact> downloadPactFromBrokers(PactDefinition pactDefinition, String version, HttpHeaders requestHeaders, ResponseExtractor<ResponseEntity<Pact>> pactExtractor, PactBrokerUrlSource pactBrokerUrlSource) {
+        String[] brokerUrls = pactBrokerUrlSource.getPactUrlsToDownloadPacts();
+
+        if (brokerUrls.length > 1 && pactBrokerUrlSource.isRaceDownloadUrls()) {
+            return raceBrokers(pactDefinition, version, requestHeaders, pactExtractor, brokerUrls);
+        }
+
+        for (String eachUrl : brokerUrls) {
+            ResponseEntity<Pact> response = downloadPactFromBroker(pactDefinition, version, eachUrl, requestHeaders, pactExtractor);
+            if (response != null) {
+                return response;
+            }
+        }
+
+        return null;
+    }
+
+    protected ResponseEntity<Pact> downloadPactFromBroker(PactDefinition pactDefinition, String version, String brokerUrl, HttpHeaders requestHeaders, ResponseExtractor<ResponseEntity<Pact>> pactExtractor) {
+        try {
+            LOG.info(String.format("Downloading pact [%s] from broker at: %s", version, brokerUrl));
+            RestTemplate restTemplate = createRestTemplate();
+            return restTemplate.execute(pactUrl(pactDefinition, version, brokerUrl), HttpMethod.GET, restTemplate.httpEntityCallback(new HttpEntity<>(requestHeaders)), pactExtractor);
+        } catch (RestClientException e) {
+            LOG.warn(String.format("Couldn't download pact [%s] from url: %s", version, brokerUrl), e);
+            return null;
+        }
+    }
+
+    private ResponseEntity<Pact> raceBrokers(PactDefinition pactDefinition, String version, HttpHeaders requestHeaders, ResponseExtractor<ResponseEntity<Pact>> pactExtractor, String[] brokerUrls) {
+        ExecutorService executor = Executors.newFixedThreadPool(brokerUrls.length, daemonThreads("pact-broker-race"));
+        try {
+            CompletionService<ResponseEntity<Pact>> downloads = new ExecutorCompletionService<>(executor);
+            for (String eachUrl : brokerUrls) {
+                downloads.submit(() -> downloadPactFromBroker(pactDefinition, version, eachUrl, requestHeaders, pactExtractor));
+            }
+
+            for (int i = 0; i < brokerUrls.length; i++) {
+                ResponseEntity<Pact> response = await(downloads.take());
+                if (response != null) {
+                    return response;
+                }
+            }
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while downloading pact " + version, e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while downloading pacts", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
     protected RestTemplate createRestTemplate() {
-        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory();
-        factory.setReadTimeout(PACT_DOWNLOAD_TIMEOUT_MILLIS);
-        factory.setConnectTimeout(PACT_DOWNLOAD_TIMEOUT_MILLIS);
+        return PactBrokerClient.getInstance().getRestTemplate();
+    }
 
-        return new RestTemplate(factory);
+    protected Pact loadPact(String localPactFilePath, ObjectStringConverter jsonConverter) {
+        if (overridesLoadPactFile) {
+            return Pact.parse(loadPactFile(localPactFilePath), jsonConverter);
+        }
+        try (Reader reader = Files.newBufferedReader(Paths.get(localPactFilePath), UTF_8)) {
+            return Pact.parseLazily(reader, jsonConverter);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load Pact file from local file path: " + localPactFilePath, e);
+        }
     }
 
+    /**
+     * Read a local pact file into a string. Only called when a subclass overrides it, in which case it replaces the streaming load.
+     *
+     * @deprecated Override {@link #loadPact(String, ObjectStringConverter)} instead, which parses the pact as it is read.
+     */
+    @Deprecated
     protected String loadPactFile(String localPactFilePath) {
         try {
-            return FileUtils.readFileToString(new File(localPactFilePath), UTF_8);
+            return new String(Files.readAllBytes(Paths.get(localPactFilePath)), UTF_8);
         } catch (IOException e) {
             throw new RuntimeException("Failed to load Pact file from local file path: " + localPactFilePath, e);
         }
     }
 
+    private boolean overrides(String methodName, Class<?>... parameterTypes) {
+        for (Class<?> type = getClass(); type != DefaultPactResolver.class; type = type.getSuperclass()) {
+            try {
+                type.getDeclaredMethod(methodName, parameterTypes);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // not overridden at this level
+            }
+        }
+        return false;
+    }
+
     protected String pactUrl(PactDefinition pactDefinition, String version, String brokerUrl) {
         return brokerUrl
                 + "/pacts/provider/"
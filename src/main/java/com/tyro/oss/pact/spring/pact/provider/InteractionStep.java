@@ -0,0 +1,48 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.provider;
+
+public enum InteractionStep {
+
+    /**
+     * Converting the recorded request into a MockMvc request.
+     */
+    BUILD_REQUEST,
+
+    /**
+     * Performing the request against the provider.
+     */
+    PERFORM_REQUEST,
+
+    /**
+     * Asserting the response status.
+     */
+    ASSERT_STATUS,
+
+    /**
+     * Asserting the response headers.
+     */
+    ASSERT_HEADERS,
+
+    /**
+     * Asserting the response body.
+     */
+    ASSERT_BODY
+}
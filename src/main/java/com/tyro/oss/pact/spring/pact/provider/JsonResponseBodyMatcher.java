@@ -45,10 +45,14 @@ public class JsonResponseBodyMatcher implements ResponseBodyMatcher {
         if (StringUtils.isNotEmpty(response.getSchema())) {
             expectations.andExpect(new JsonSchemaResultMatcher(response.getSchema()));
         } else {
-            expectations.andExpect(new JsonResultMatcher(response.getBody()));
+            expectations.andExpect(createBodyMatcher(response.getBody()));
         }
     }
 
+    protected ResultMatcher createBodyMatcher(String expectedJsonResponse) {
+        return new JsonResultMatcher(expectedJsonResponse);
+    }
+
     private static class JsonSchemaResultMatcher implements ResultMatcher {
         private String schema;
 
@@ -0,0 +1,232 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.provider;
+
+import com.tyro.oss.pact.spring.pact.model.Pact;
+import com.tyro.oss.pact.spring.util.Digests;
+import com.tyro.oss.pact.spring.util.ObjectStringConverter;
+import org.apache.commons.io.IOUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Properties;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class PactCache {
+
+    public static final String CONSUMER_VERSION_HEADER = "X-Pact-Consumer-Version";
+
+    private static final String BODIES = "bodies";
+    private static final String BODY = "body";
+    private static final String ETAG = "etag";
+    private static final String LAST_MODIFIED = "lastModified";
+    private static final String CONSUMER_VERSION = "consumerVersion";
+
+    private final File directory;
+
+    public PactCache(File directory) {
+        this.directory = directory;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Look up a previously downloaded pact.
+     *
+     * @return The cached pact, or null if this version has not been downloaded or its body is missing
+     */
+    public CachedPact get(String provider, String consumer, String version) {
+        File entryFile = entryFile(provider, consumer, version);
+        if (!entryFile.isFile()) {
+            return null;
+        }
+
+        try {
+            Properties entry = new Properties();
+            try (InputStream in = Files.newInputStream(entryFile.toPath())) {
+                entry.load(in);
+            }
+            File bodyFile = bodyFile(entry.getProperty(BODY));
+            if (!bodyFile.isFile()) {
+                return null;
+            }
+            return new CachedPact(bodyFile, entry.getProperty(ETAG), entry.getProperty(LAST_MODIFIED), entry.getProperty(CONSUMER_VERSION));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read cached pact " + entryFile, e);
+        }
+    }
+
+    /**
+     * Store a pact downloaded from the broker, streaming the body straight to disk. The body is stored once per
+     * distinct content and shared between versions. The body stream is left open.
+     */
+    public CachedPact put(String provider, String consumer, String version, HttpHeaders headers, InputStream body) {
+        try {
+            String digest = writeBody(body);
+            CachedPact cachedPact = new CachedPact(bodyFile(digest), headers.getETag(), headers.getFirst(HttpHeaders.LAST_MODIFIED), headers.getFirst(CONSUMER_VERSION_HEADER));
+
+            Properties entry = new Properties();
+            entry.setProperty(BODY, digest);
+            setIfPresent(entry, ETAG, cachedPact.getETag());
+            setIfPresent(entry, LAST_MODIFIED, cachedPact.getLastModified());
+            setIfPresent(entry, CONSUMER_VERSION, cachedPact.getConsumerVersion());
+            File entryFile = entryFile(provider, consumer, version);
+            Path temporary = createTemporaryFile(entryFile);
+            try (OutputStream out = Files.newOutputStream(temporary)) {
+                entry.store(out, provider + " " + consumer + " " + version);
+            }
+            move(temporary, entryFile);
+            return cachedPact;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to cache pact " + version + " for " + consumer, e);
+        }
+    }
+
+    private String writeBody(InputStream body) throws IOException {
+        MessageDigest messageDigest = Digests.sha256();
+        Path bodiesDirectory = Files.createDirectories(new File(directory, BODIES).toPath());
+        Path temporary = Files.createTempFile(bodiesDirectory, "body", ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temporary)) {
+                IOUtils.copy(new DigestInputStream(body, messageDigest), out);
+            }
+            String digest = Digests.hex(messageDigest.digest());
+            File bodyFile = bodyFile(digest);
+            if (!bodyFile.isFile()) {
+                move(temporary, bodyFile);
+            }
+            return digest;
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private File entryFile(String provider, String consumer, String version) {
+        return new File(directory, encode(provider) + File.separator + encode(consumer) + File.separator + encode(version) + ".properties");
+    }
+
+    private File bodyFile(String digest) {
+        return new File(directory, BODIES + File.separator + digest + ".json");
+    }
+
+    private static void setIfPresent(Properties properties, String key, String value) {
+        if (value != null) {
+            properties.setProperty(key, value);
+        }
+    }
+
+    private static Path createTemporaryFile(File target) throws IOException {
+        Files.createDirectories(target.getParentFile().toPath());
+        return Files.createTempFile(target.getParentFile().toPath(), target.getName(), ".tmp");
+    }
+
+    private static void move(Path source, File target) throws IOException {
+        try {
+            Files.move(source, target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static String encode(String pathSegment) {
+        try {
+            return URLEncoder.encode(pathSegment, UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static class CachedPact {
+
+        private final File bodyFile;
+        private final String eTag;
+        private final String lastModified;
+        private final String consumerVersion;
+
+        CachedPact(File bodyFile, String eTag, String lastModified, String consumerVersion) {
+            this.bodyFile = bodyFile;
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.consumerVersion = consumerVersion;
+        }
+
+        public File getBodyFile() {
+            return bodyFile;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+
+        public String getLastModified() {
+            return lastModified;
+        }
+
+        public String getConsumerVersion() {
+            return consumerVersion;
+        }
+
+        /**
+         * Headers that ask the broker to respond with 304 Not Modified if the pact has not changed since it was cached.
+         */
+        public HttpHeaders getRevalidationHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            if (eTag != null) {
+                headers.set(HttpHeaders.IF_NONE_MATCH, eTag);
+            }
+            if (lastModified != null) {
+                headers.set(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+            }
+            return headers;
+        }
+
+        /**
+         * Parse the cached body as it is read from disk.
+         */
+        public ResponseEntity<Pact> toResponseEntity(ObjectStringConverter jsonConverter) {
+            HttpHeaders headers = new HttpHeaders();
+            if (consumerVersion != null) {
+                headers.set(CONSUMER_VERSION_HEADER, consumerVersion);
+            }
+            try (Reader reader = Files.newBufferedReader(bodyFile.toPath(), UTF_8)) {
+                return new ResponseEntity<>(Pact.parseLazily(reader, jsonConverter), headers, HttpStatus.OK);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read cached pact " + bodyFile, e);
+            }
+        }
+    }
+}
@@ -23,9 +23,12 @@ import com.tyro.oss.pact.spring.pact.model.ObjectStringConverterSource;
 import com.tyro.oss.pact.spring.pact.model.Pact;
 import com.tyro.oss.pact.spring.pact.provider.annotations.WithSpringSecurity;
 import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.TestTemplate;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -40,9 +43,12 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 import org.springframework.web.util.UriUtils;
 
+import javax.servlet.ServletContext;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.asList;
@@ -56,7 +62,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 public abstract class PactTestBase {
 
     private static final Logger LOG = LoggerFactory.getLogger(PactTestBase.class);
-    private static List<ResponseBodyMatcher> responseBodyMatchers = new ArrayList<>(asList(
+    private static final String MOCK_MVC_ATTRIBUTE_PREFIX = PactTestBase.class.getName() + ".mockMvc.";
+    private static List<ResponseBodyMatcher> responseBodyMatchers = new CopyOnWriteArrayList<>(asList(
             new JsonResponseBodyMatcher(),
             new StatusCodeNoContentResponseBodyMatcher(),
             new DefaultResponseBodyMatcher()
@@ -67,8 +74,57 @@ public abstract class PactTestBase {
 
     protected MockMvc mockMvc;
 
+    private Queue<MockMvc> mockMvcPool;
+
     @BeforeEach
     protected void setup() {
+        ServletContext servletContext = wac.getServletContext();
+        if (!cacheMockMvc() || servletContext == null) {
+            mockMvc = buildMockMvc();
+            return;
+        }
+
+        mockMvcPool = getMockMvcPool(servletContext);
+        mockMvc = mockMvcPool.poll();
+        if (mockMvc == null) {
+            mockMvc = buildMockMvc();
+        }
+    }
+
+    /**
+     * Return the MockMvc borrowed by this workflow, so that a later workflow can reuse it.
+     */
+    @AfterEach
+    protected void releaseMockMvc() {
+        if (mockMvcPool != null && mockMvc != null) {
+            mockMvcPool.offer(mockMvc);
+        }
+        mockMvcPool = null;
+    }
+
+    /**
+     * Whether the MockMvcs built for this test class may be reused by later workflows run against the same WebApplicationContext.
+     * Each workflow borrows a MockMvc that no other running workflow holds, so workflows verified in parallel never share one.
+     * Override to return false when initialiseMockMvcBuilder depends on state that changes between workflows.
+     */
+    protected boolean cacheMockMvc() {
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Queue<MockMvc> getMockMvcPool(ServletContext servletContext) {
+        String attributeName = MOCK_MVC_ATTRIBUTE_PREFIX + getClass().getName();
+        synchronized (servletContext) {
+            Queue<MockMvc> pool = (Queue<MockMvc>) servletContext.getAttribute(attributeName);
+            if (pool == null) {
+                pool = new ConcurrentLinkedQueue<>();
+                servletContext.setAttribute(attributeName, pool);
+            }
+            return pool;
+        }
+    }
+
+    private MockMvc buildMockMvc() {
         DefaultMockMvcBuilder mockMvcBuilder = MockMvcBuilders.webAppContextSetup(wac);
         WithSpringSecurity withSpringSecurityAnnotation = this.getClass().getAnnotation(WithSpringSecurity.class);
 
@@ -77,18 +133,33 @@ public abstract class PactTestBase {
         }
 
         initialiseMockMvcBuilder(mockMvcBuilder);
-        mockMvc = mockMvcBuilder.build();
+        return mockMvcBuilder.build();
     }
 
     @TestTemplate
     @ExtendWith(PactTestTemplateInvocationContextProvider.class)
+    @Execution(ExecutionMode.CONCURRENT)
     protected void pactTests(PactTestContext context) throws Exception {
         if (context.shouldExclude()) {
             LOG.warn("Test has been excluded. Test will show as passed but was *NOT* run.");
             return;
         }
-        setUpProviderState(context);
-        performInteraction(context);
+        WorkflowScheduler.Permit permit = context.acquirePermit();
+        try {
+            long start = System.nanoTime();
+            Throwable failure = null;
+            try {
+                setUpProviderState(context);
+                performInteraction(context);
+            } catch (Exception | AssertionError e) {
+                failure = e;
+                throw e;
+            } finally {
+                context.getListener().workflowVerified(context, System.nanoTime() - start, failure);
+            }
+        } finally {
+            permit.release();
+        }
     }
 
     protected void setUpProviderState(PactTestContext context) throws Exception {
@@ -103,20 +174,31 @@ public abstract class PactTestBase {
                 throw new IllegalStateException("Cannot find a setup method for provider state " + providerState.getDescription());
             }
             providerStateSetupMethod.setAccessible(true);
+            long start = System.nanoTime();
             providerStateSetupMethod.invoke(this, providerState.getStates(providerStateSetupMethod.getGenericParameterTypes()));
+            context.getListener().providerStateSetUp(context, providerState, System.nanoTime() - start);
         }
     }
 
     protected void performInteraction(PactTestContext context) throws Exception {
+        PactVerificationListener listener = context.getListener();
         for (Pact.Interaction interaction : context.getWorkflow().getInteractions()) {
             LOG.info("Testing interaction [" + interaction + "]");
             Pact.InteractionRequest pactRequest = interaction.getRequest();
-            Pact.InteractionResponse pactExpectation = interaction.getResponse();
 
+            long start = System.nanoTime();
             RequestBuilder requestBuilder = toMockMvcRequest(pactRequest);
+            Object requestBody = pactRequest.getBody();
+            listener.interactionStepCompleted(context, interaction, InteractionStep.BUILD_REQUEST, System.nanoTime() - start,
+                    requestBody == null ? 0 : requestBody.toString().getBytes(UTF_8).length);
 
+            start = System.nanoTime();
             ResultActions actualResponse = mockMvc.perform(requestBuilder);
-            assertResponse(actualResponse, pactExpectation);
+            long elapsed = System.nanoTime() - start;
+            long responseBytes = actualResponse.andReturn().getResponse().getContentAsByteArray().length;
+            listener.interactionStepCompleted(context, interaction, InteractionStep.PERFORM_REQUEST, elapsed, responseBytes);
+
+            assertResponse(context, interaction, actualResponse, responseBytes);
         }
     }
 
@@ -142,10 +224,17 @@ public abstract class PactTestBase {
         return headers;
     }
 
-    private void assertResponse(ResultActions actualResponse, Pact.InteractionResponse pactExpectation) throws Exception {
-        assertStatus(actualResponse, pactExpectation);
-        assertHeaders(actualResponse, pactExpectation);
-        assertContent(actualResponse, pactExpectation);
+    private void assertResponse(PactTestContext context, Pact.Interaction interaction, ResultActions actualResponse, long responseBytes) throws Exception {
+        Pact.InteractionResponse pactExpectation = interaction.getResponse();
+        timeStep(context, interaction, InteractionStep.ASSERT_STATUS, responseBytes, () -> assertStatus(actualResponse, pactExpectation));
+        timeStep(context, interaction, InteractionStep.ASSERT_HEADERS, responseBytes, () -> assertHeaders(actualResponse, pactExpectation));
+        timeStep(context, interaction, InteractionStep.ASSERT_BODY, responseBytes, () -> assertContent(actualResponse, pactExpectation));
+    }
+
+    private void timeStep(PactTestContext context, Pact.Interaction interaction, InteractionStep step, long responseBytes, Assertion assertion) throws Exception {
+        long start = System.nanoTime();
+        assertion.run();
+        context.getListener().interactionStepCompleted(context, interaction, step, System.nanoTime() - start, responseBytes);
     }
 
     protected MockHttpServletRequestBuilder createRequestBuilderWithMethodAndUri(Pact.InteractionRequest request) throws Exception {
@@ -201,4 +290,8 @@ public abstract class PactTestBase {
         }
         return null;
     }
+
+    private interface Assertion {
+        void run() throws Exception;
+    }
 }
@@ -23,28 +23,57 @@ import com.tyro.oss.pact.spring.pact.model.Pact;
 import com.tyro.oss.pact.spring.util.ObjectStringConverter;
 
 import java.lang.reflect.Method;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 
 public class PactTestContext {
 
     private final String pactVersion;
+    private final String consumer;
+    private final String version;
     private final Pact.Workflow workflow;
     private final Map<String, Method> providerStateMethods;
     private final ObjectStringConverter objectStringConverter;
     private final boolean exclude;
+    private final WorkflowScheduler scheduler;
+    private final Set<String> resourceLocks;
+    private final boolean isolated;
+    private final PactVerificationListener listener;
 
     public PactTestContext(String pactVersion, Pact.Workflow workflow, ObjectStringConverter objectStringConverter, Map<String, Method> providerStateMethods, boolean exclude) {
+        this(pactVersion, null, pactVersion, workflow, objectStringConverter, providerStateMethods, exclude, new WorkflowScheduler(1), Collections.emptySet(), true,
+                new PactVerificationListener() {});
+    }
+
+    public PactTestContext(String pactVersion, String consumer, String version, Pact.Workflow workflow, ObjectStringConverter objectStringConverter,
+                           Map<String, Method> providerStateMethods, boolean exclude, WorkflowScheduler scheduler, Set<String> resourceLocks, boolean isolated,
+                           PactVerificationListener listener) {
         this.pactVersion = pactVersion;
+        this.consumer = consumer;
+        this.version = version;
         this.workflow = workflow;
         this.providerStateMethods = providerStateMethods;
         this.exclude = exclude;
         this.objectStringConverter = objectStringConverter;
+        this.scheduler = scheduler;
+        this.resourceLocks = resourceLocks;
+        this.isolated = isolated;
+        this.listener = listener;
     }
 
     public String getPactVersion() {
         return pactVersion;
     }
 
+    public String getConsumer() {
+        return consumer;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
     public Pact.Workflow getWorkflow() {
         return workflow;
     }
@@ -60,4 +89,25 @@ public class PactTestContext {
     public boolean shouldExclude() {
         return this.exclude;
     }
+
+    public Set<String> getResourceLocks() {
+        return resourceLocks;
+    }
+
+    public boolean isIsolated() {
+        return isolated;
+    }
+
+    public PactVerificationListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Wait until this workflow may run alongside the workflows already in progress.
+     *
+     * @return A permit to release once the workflow has been verified
+     */
+    public WorkflowScheduler.Permit acquirePermit() throws InterruptedException {
+        return scheduler.acquire(resourceLocks, isolated);
+    }
 }
@@ -26,9 +26,11 @@ import com.tyro.oss.pact.spring.pact.provider.annotations.PactDefinition;
 import com.tyro.oss.pact.spring.pact.provider.annotations.ProviderState;
 import com.tyro.oss.pact.spring.pact.provider.annotations.WithPactFilter;
 import com.tyro.oss.pact.spring.pact.provider.annotations.WithPactResolver;
+import com.tyro.oss.pact.spring.pact.provider.annotations.WithPactVerificationListener;
 import com.tyro.oss.pact.spring.util.GsonStringConverter;
 import com.tyro.oss.pact.spring.util.ObjectStringConverter;
 import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.extension.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,7 +41,6 @@ import java.util.*;
 import java.util.stream.Stream;
 
 import static java.lang.String.format;
-import static java.util.function.Predicate.isEqual;
 
 public class PactTestTemplateInvocationContextProvider implements TestTemplateInvocationContextProvider {
 
@@ -47,6 +48,8 @@ public class PactTestTemplateInvocationContextProvider implements TestTemplateIn
 
     private PactFilter pactFilter;
     private ConsumerFilter consumerFilter;
+    private ShardFilter shardFilter;
+    private PactVerificationListener listener;
     private ObjectStringConverter objectStringConverter;
 
     @Override
@@ -74,7 +77,14 @@ public class PactTestTemplateInvocationContextProvider implements TestTemplateIn
 
         consumerFilter = new ConsumerFilter(System.getProperty("pact.consumer.to.verify"));
 
-        return getPactResolver(testClass).resolvePacts(pactDefinition, objectStringConverter);
+        shardFilter = ShardFilter.fromSystemProperties();
+
+        listener = getVerificationListener(testClass);
+
+        long start = System.nanoTime();
+        List<Pact> pacts = getPactResolver(testClass).resolvePacts(pactDefinition, objectStringConverter);
+        listener.pactsResolved(testClass, pacts, System.nanoTime() - start);
+        return pacts;
     }
 
     private PactDefinition getPactDefinition(Class<?> clazz) {
@@ -105,6 +115,22 @@ public class PactTestTemplateInvocationContextProvider implements TestTemplateIn
         }
     }
 
+    private PactVerificationListener getVerificationListener(Class<?> clazz) throws IllegalAccessException, InstantiationException {
+        WithPactVerificationListener withListener = AnnotationUtils.findAnnotation(clazz, WithPactVerificationListener.class);
+
+        if (withListener == null) {
+            return new CompositePactVerificationListener(Boolean.getBoolean(TimingReportListener.ENABLED_PROPERTY)
+                    ? Collections.singletonList(new TimingReportListener())
+                    : Collections.emptyList());
+        }
+
+        List<PactVerificationListener> listeners = new ArrayList<>();
+        for (Class<? extends PactVerificationListener> listenerClass : withListener.value()) {
+            listeners.add(listenerClass.newInstance());
+        }
+        return new CompositePactVerificationListener(listeners);
+    }
+
     private Map<String, Method> getProviderStateMethods(Class<?> clazz) {
         Map<String, Method> providerStateMethods = new HashMap<>();
 
@@ -134,38 +160,92 @@ public class PactTestTemplateInvocationContextProvider implements TestTemplateIn
 
         Set<String> runOnly = new HashSet<>(Arrays.asList(pactDef.runOnly()));
 
-        List<TestTemplateInvocationContext> testMethods = new ArrayList<>();
+        WorkflowScheduler scheduler = createScheduler(context, pactDef);
+
+        boolean shouldExclude = consumerFilter.shouldExcludePact(clazz);
+
+        List<WorkflowToRun> workflowsToRun = new ArrayList<>();
 
         for (Pact pact : pacts) {
             if (pactFilter.shouldExcludePact(clazz, pact)) {
                 continue;
             }
 
-            boolean shouldExclude = consumerFilter.shouldExcludePact(clazz);
-
             List<Pact.Workflow> uniqueWorkflows = getUniqueWorkflows(pact);
 
             for (Pact.Workflow workflow : uniqueWorkflows) {
                 if (!pactFilter.shouldExcludeInteractionOrWorkflow(clazz, pact, workflow.getId())) {
                     if (runOnly.isEmpty() || runOnly.contains(workflow.getId())) {
-                        testMethods.add(new PactTestTemplateInvocationContext(new PactTestContext(
-                                        pact.getDisplayName(),
-                                        workflow,
-                                        objectStringConverter,
-                                        providerStateMethods,
-                                        shouldExclude)));
+                        String workflowKey = ShardFilter.workflowKey(pactDef.consumer(), pact.getDisplayVersion(), workflow.getId());
+                        workflowsToRun.add(new WorkflowToRun(workflowKey, pact, workflow));
                     }
                 }
             }
         }
+
+        List<String> workflowKeys = new ArrayList<>();
+        workflowsToRun.forEach(workflowToRun -> workflowKeys.add(workflowToRun.key));
+        Set<String> shard = shardFilter.selectShard(workflowKeys);
+
+        List<TestTemplateInvocationContext> testMethods = new ArrayList<>();
+        int replayed = 0;
+
+        for (WorkflowToRun workflowToRun : workflowsToRun) {
+            Pact pact = workflowToRun.pact;
+            Pact.Workflow workflow = workflowToRun.workflow;
+            boolean inShard = shard.contains(workflowToRun.key);
+            if (inShard) {
+                replayed++;
+            }
+            Set<String> resourceLocks = new TreeSet<>();
+            boolean isolated = collectResourceLocks(workflow, providerStateMethods, resourceLocks);
+            testMethods.add(new PactTestTemplateInvocationContext(new PactTestContext(
+                            pact.getDisplayName(),
+                            pactDef.consumer(),
+                            pact.getDisplayVersion(),
+                            workflow,
+                            objectStringConverter,
+                            providerStateMethods,
+                            shouldExclude,
+                            scheduler,
+                            resourceLocks,
+                            isolated,
+                            listener),
+                    inShard ? null : "Workflow " + workflow.getId() + " is replayed by another pact shard"));
+        }
+        if (shardFilter.isSharded()) {
+            LOG.info(String.format("Replaying %d of %d workflows in this pact shard", replayed, workflowsToRun.size()));
+        }
         return testMethods.stream();
     }
 
+    private WorkflowScheduler createScheduler(ExtensionContext context, PactDefinition pactDef) {
+        if (pactDef.parallelism() > 1 && context.getTestInstanceLifecycle().orElse(null) == TestInstance.Lifecycle.PER_CLASS) {
+            throw new IllegalStateException("Parallel pact verification needs a test instance per workflow. Remove @TestInstance(PER_CLASS) or set parallelism to 1");
+        }
+        return new WorkflowScheduler(pactDef.parallelism());
+    }
+
+    private boolean collectResourceLocks(Pact.Workflow workflow, Map<String, Method> providerStateMethods, Set<String> resourceLocks) {
+        boolean isolated = false;
+        for (Pact.ProviderState providerState : workflow.getProviderStates()) {
+            Method method = providerStateMethods.get(providerState.getDescription());
+            ProviderState annotation = method == null ? null : AnnotationUtils.findAnnotation(method, ProviderState.class);
+            if (annotation == null || annotation.resourceLocks().length == 0) {
+                isolated = true;
+            } else {
+                resourceLocks.addAll(Arrays.asList(annotation.resourceLocks()));
+            }
+        }
+        return isolated;
+    }
+
     private List<Pact.Workflow> getUniqueWorkflows(Pact pact) {
         List<Pact.Workflow> uniqueWorkflows = new ArrayList<>();
+        Map<WorkflowFingerprint, Pact.Workflow> workflowsByFingerprint = new HashMap<>();
 
         for (Pact.Workflow workflow : pact.getWorkFlows().values()) {
-            Pact.Workflow existingWorkflow = uniqueWorkflows.stream().filter(isEqual(workflow)).findFirst().orElse(null);
+            Pact.Workflow existingWorkflow = workflowsByFingerprint.putIfAbsent(new WorkflowFingerprint(workflow), workflow);
 
             if (existingWorkflow != null) {
                 LOG.info("Workflow " + workflow.getId() + " is a duplicate of " + existingWorkflow.getId() + " and will not be replayed");
@@ -191,12 +271,34 @@ public class PactTestTemplateInvocationContextProvider implements TestTemplateIn
         }
     }
 
+    private static final class WorkflowToRun {
+
+        private final String key;
+        private final Pact pact;
+        private final Pact.Workflow workflow;
+
+        private WorkflowToRun(String key, Pact pact, Pact.Workflow workflow) {
+            this.key = key;
+            this.pact = pact;
+            this.workflow = workflow;
+        }
+    }
+
     public static class PactTestTemplateInvocationContext implements TestTemplateInvocationContext {
 
         private final PactTestContext pactTestContext;
+        private final String skipReason;
 
         PactTestTemplateInvocationContext(PactTestContext pactTestContext) {
+            this(pactTestContext, null);
+        }
+
+        /**
+         * @param skipReason Why the workflow is skipped rather than replayed, or null to replay it
+         */
+        PactTestTemplateInvocationContext(PactTestContext pactTestContext, String skipReason) {
             this.pactTestContext = pactTestContext;
+            this.skipReason = skipReason;
         }
 
         @Override
@@ -206,7 +308,11 @@ public class PactTestTemplateInvocationContextProvider implements TestTemplateIn
 
         @Override
         public List<Extension> getAdditionalExtensions() {
-            return Collections.singletonList(new ParameterResolver() {
+            List<Extension> extensions = new ArrayList<>();
+            if (skipReason != null) {
+                extensions.add((ExecutionCondition) extensionContext -> ConditionEvaluationResult.disabled(skipReason));
+            }
+            extensions.add(new ParameterResolver() {
                 @Override
                 public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
                     return parameterContext.getParameter().getType().equals(PactTestContext.class);
@@ -217,6 +323,7 @@ public class PactTestTemplateInvocationContextProvider implements TestTemplateIn
                     return pactTestContext;
                 }
             });
+            return extensions;
         }
     }
 }
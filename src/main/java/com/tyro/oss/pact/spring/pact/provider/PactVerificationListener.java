@@ -0,0 +1,60 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.provider;
+
+import com.tyro.oss.pact.spring.pact.model.Pact;
+
+import java.util.List;
+
+/**
+ * Notified as pacts are resolved and verified, for example to collect timings. Listeners may be called from several
+ * threads at once when workflows are verified in parallel.
+ */
+public interface PactVerificationListener {
+
+    /**
+     * Called once per test class after its pacts have been downloaded or loaded.
+     */
+    default void pactsResolved(Class<?> testClass, List<Pact> pacts, long elapsedNanos) {
+    }
+
+    /**
+     * Called after the set up method of a provider state has run.
+     */
+    default void providerStateSetUp(PactTestContext context, Pact.ProviderState providerState, long elapsedNanos) {
+    }
+
+    /**
+     * Called after each step of replaying an interaction has succeeded.
+     *
+     * @param bytes The size of the request body for {@link InteractionStep#BUILD_REQUEST}, and of the response body for the
+     *              other steps
+     */
+    default void interactionStepCompleted(PactTestContext context, Pact.Interaction interaction, InteractionStep step, long elapsedNanos, long bytes) {
+    }
+
+    /**
+     * Called after a workflow has been replayed.
+     *
+     * @param failure Why the workflow failed verification, or null if it passed
+     */
+    default void workflowVerified(PactTestContext context, long elapsedNanos, Throwable failure) {
+    }
+}
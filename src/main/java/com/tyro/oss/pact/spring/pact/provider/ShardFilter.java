@@ -0,0 +1,223 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.provider;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+public class ShardFilter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ShardFilter.class);
+
+    public static final String SHARD_INDEX_PROPERTY = "pact.shard.index";
+    public static final String SHARD_COUNT_PROPERTY = "pact.shard.count";
+    public static final String SHARD_DURATIONS_PROPERTY = "pact.shard.durations";
+
+    static final String CONSUMER_COLUMN = "consumer";
+    static final String VERSION_COLUMN = "version";
+    static final String WORKFLOW_COLUMN = "workflow";
+    static final String MILLIS_COLUMN = "millis";
+
+    private final int shardIndex;
+    private final int shardCount;
+    private final Map<String, Integer> shardsByDuration;
+
+    /**
+     * @param shardIndex The zero-based shard to replay
+     * @param shardCount The number of shards the workflows are split between
+     * @param durations  Milliseconds each workflow took in a previous run, keyed by {@link #workflowKey}. The workflows are
+     *                   balanced between the shards by these durations, and any workflow missing from them is assigned by
+     *                   hashing its key
+     */
+    public ShardFilter(int shardIndex, int shardCount, Map<String, Long> durations) {
+        if (shardCount < 1 || shardIndex < 0 || shardIndex >= shardCount) {
+            throw new IllegalArgumentException(String.format("Invalid pact shard %d of %d", shardIndex, shardCount));
+        }
+        this.shardIndex = shardIndex;
+        this.shardCount = shardCount;
+        this.shardsByDuration = isSharded() ? assignByDuration(durations, shardCount) : Collections.emptyMap();
+    }
+
+    /**
+     * Configure sharding from the pact.shard.index, pact.shard.count and pact.shard.durations system properties. Without
+     * them every workflow is replayed.
+     */
+    public static ShardFilter fromSystemProperties() {
+        String shardIndex = System.getProperty(SHARD_INDEX_PROPERTY);
+        String shardCount = System.getProperty(SHARD_COUNT_PROPERTY);
+        if (isBlank(shardIndex) && isBlank(shardCount)) {
+            return new ShardFilter(0, 1, Collections.emptyMap());
+        }
+        if (isBlank(shardIndex) || isBlank(shardCount)) {
+            throw new IllegalStateException(SHARD_INDEX_PROPERTY + " and " + SHARD_COUNT_PROPERTY + " must be set together");
+        }
+
+        String durationsFile = System.getProperty(SHARD_DURATIONS_PROPERTY);
+        Map<String, Long> durations = isBlank(durationsFile) ? Collections.emptyMap() : readDurations(new File(durationsFile));
+        return new ShardFilter(Integer.parseInt(shardIndex.trim()), Integer.parseInt(shardCount.trim()), durations);
+    }
+
+    public static String workflowKey(String consumer, String version, String workflowId) {
+        return consumer + "/" + version + "/" + workflowId;
+    }
+
+    public boolean isSharded() {
+        return shardCount > 1;
+    }
+
+    /**
+     * Choose the workflows this shard replays. Each workflow is assigned using only its own key and the durations, so every
+     * shard given the same durations chooses a disjoint subset of the workflow keys, and together the shards choose them all,
+     * even when the shards resolve different sets of workflows.
+     *
+     * @return The keys of the workflows to replay on this shard
+     */
+    public Set<String> selectShard(Collection<String> workflowKeys) {
+        if (!isSharded()) {
+            return new HashSet<>(workflowKeys);
+        }
+        Set<String> selected = new HashSet<>();
+        for (String workflowKey : workflowKeys) {
+            Integer shard = shardsByDuration.get(workflowKey);
+            if ((shard == null ? hashShard(workflowKey) : shard) == shardIndex) {
+                selected.add(workflowKey);
+            }
+        }
+        return selected;
+    }
+
+    private int hashShard(String workflowKey) {
+        CRC32 crc = new CRC32();
+        crc.update(workflowKey.getBytes(UTF_8));
+        return (int) (crc.getValue() % shardCount);
+    }
+
+    /**
+     * Assigns the longest workflows first, each to the shard with the least work so far. Only the workflows in the durations
+     * are assigned, never the ones a shard happens to resolve, so that shards that see different workflows still agree.
+     */
+    private static Map<String, Integer> assignByDuration(Map<String, Long> durations, int shardCount) {
+        List<String> longestFirst = new ArrayList<>(durations.keySet());
+        Comparator<String> byDuration = Comparator.comparingLong(durations::get);
+        longestFirst.sort(byDuration.reversed().thenComparing(Comparator.naturalOrder()));
+
+        long[] load = new long[shardCount];
+        Map<String, Integer> shards = new HashMap<>();
+        for (String workflowKey : longestFirst) {
+            int shard = 0;
+            for (int i = 1; i < shardCount; i++) {
+                if (load[i] < load[shard]) {
+                    shard = i;
+                }
+            }
+            load[shard] += durations.get(workflowKey);
+            shards.put(workflowKey, shard);
+        }
+        return shards;
+    }
+
+    /**
+     * Read workflow durations from a CSV file with a header row naming at least the consumer, version, workflow and millis
+     * columns, such as the timing report of a previous run.
+     */
+    static Map<String, Long> readDurations(File durationsFile) {
+        if (!durationsFile.isFile()) {
+            LOG.warn("Pact shard durations file " + durationsFile + " does not exist, workflows will be sharded by hash");
+            return Collections.emptyMap();
+        }
+
+        Map<String, Long> durations = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(durationsFile.toPath(), UTF_8)) {
+            String header = reader.readLine();
+            List<String> columns = header == null ? Collections.emptyList() : parseCsvLine(header);
+            int consumer = requiredColumn(columns, CONSUMER_COLUMN, durationsFile);
+            int version = requiredColumn(columns, VERSION_COLUMN, durationsFile);
+            int workflow = requiredColumn(columns, WORKFLOW_COLUMN, durationsFile);
+            int millis = requiredColumn(columns, MILLIS_COLUMN, durationsFile);
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                List<String> values = parseCsvLine(line);
+                String workflowKey = workflowKey(values.get(consumer), values.get(version), values.get(workflow));
+                durations.merge(workflowKey, Long.parseLong(values.get(millis).trim()), Math::max);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read pact shard durations from " + durationsFile, e);
+        }
+        return durations;
+    }
+
+    private static int requiredColumn(List<String> columns, String column, File durationsFile) {
+        int index = columns.indexOf(column);
+        if (index < 0) {
+            throw new IllegalStateException("Pact shard durations file " + durationsFile + " has no " + column + " column");
+        }
+        return index;
+    }
+
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
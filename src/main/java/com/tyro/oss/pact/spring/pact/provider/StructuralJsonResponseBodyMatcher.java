@@ -0,0 +1,53 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.provider;
+
+import com.tyro.oss.pact.spring.util.LenientJsonComparator;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class StructuralJsonResponseBodyMatcher extends JsonResponseBodyMatcher {
+
+    @Override
+    protected ResultMatcher createBodyMatcher(String expectedJsonResponse) {
+        return new StructuralJsonResultMatcher(expectedJsonResponse);
+    }
+
+    private static class StructuralJsonResultMatcher implements ResultMatcher {
+
+        private final String expectedJsonResponse;
+
+        StructuralJsonResultMatcher(String expectedJsonResponse) {
+            this.expectedJsonResponse = expectedJsonResponse;
+        }
+
+        @Override
+        public void match(MvcResult result) throws Exception {
+            String content = result.getResponse().getContentAsString();
+
+            String difference = LenientJsonComparator.findFirstDifference(expectedJsonResponse, content);
+            if (difference != null) {
+                assertEquals(expectedJsonResponse, content, difference);
+            }
+        }
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.provider;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.tyro.oss.pact.spring.pact.model.Pact;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Records how long each workflow took to verify, broken down by provider state and interaction step, and adds the
+ * timings of every workflow verified in this JVM to a CSV and a JSON report at shutdown. The CSV report can be passed to
+ * the next run as its {@link ShardFilter#SHARD_DURATIONS_PROPERTY} file. It is only installed by default when the
+ * {@value #ENABLED_PROPERTY} system property is true.
+ */
+public class TimingReportListener implements PactVerificationListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TimingReportListener.class);
+
+    public static final String ENABLED_PROPERTY = "pact.timings.enabled";
+    public static final String REPORT_DIRECTORY_PROPERTY = "pact.timings.dir";
+    public static final String CSV_REPORT = "pact-verification-timings.csv";
+    public static final String JSON_REPORT = "pact-verification-timings.json";
+
+    private static final List<String> COLUMNS = new ArrayList<>(Arrays.asList(ShardFilter.CONSUMER_COLUMN, ShardFilter.VERSION_COLUMN,
+            ShardFilter.WORKFLOW_COLUMN, ShardFilter.MILLIS_COLUMN, "passed", "interactions", "providerStateMillis"));
+
+    static {
+        for (InteractionStep step : InteractionStep.values()) {
+            COLUMNS.add(columnName(step));
+        }
+        COLUMNS.add("requestBytes");
+        COLUMNS.add("responseBytes");
+    }
+
+    private static final Report SHARED_REPORT = new Report();
+
+    private final Report report;
+
+    public TimingReportListener() {
+        this(SHARED_REPORT);
+        SHARED_REPORT.registerShutdownHook(new File(System.getProperty(REPORT_DIRECTORY_PROPERTY, "target")));
+    }
+
+    TimingReportListener(Report report) {
+        this.report = report;
+    }
+
+    @Override
+    public void pactsResolved(Class<?> testClass, List<Pact> pacts, long elapsedNanos) {
+        Map<String, Object> resolution = new LinkedHashMap<>();
+        resolution.put("testClass", testClass.getName());
+        resolution.put("pacts", pacts.size());
+        resolution.put(ShardFilter.MILLIS_COLUMN, toMillis(elapsedNanos));
+        report.resolutions.add(resolution);
+    }
+
+    @Override
+    public void providerStateSetUp(PactTestContext context, Pact.ProviderState providerState, long elapsedNanos) {
+        report.timingOf(context).providerStateNanos += elapsedNanos;
+    }
+
+    @Override
+    public void interactionStepCompleted(PactTestContext context, Pact.Interaction interaction, InteractionStep step, long elapsedNanos, long bytes) {
+        WorkflowTiming timing = report.timingOf(context);
+        timing.stepNanos.merge(step, elapsedNanos, Long::sum);
+        if (step == InteractionStep.BUILD_REQUEST) {
+            timing.interactions++;
+            timing.requestBytes += bytes;
+        } else if (step == InteractionStep.PERFORM_REQUEST) {
+            timing.responseBytes += bytes;
+        }
+    }
+
+    @Override
+    public void workflowVerified(PactTestContext context, long elapsedNanos, Throwable failure) {
+        WorkflowTiming timing = report.inProgress.remove(context);
+        if (timing == null) {
+            timing = new WorkflowTiming();
+        }
+
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put(ShardFilter.CONSUMER_COLUMN, context.getConsumer() == null ? "" : context.getConsumer());
+        row.put(ShardFilter.VERSION_COLUMN, context.getVersion());
+        row.put(ShardFilter.WORKFLOW_COLUMN, context.getWorkflow().getId());
+        row.put(ShardFilter.MILLIS_COLUMN, toMillis(elapsedNanos));
+        row.put("passed", failure == null);
+        row.put("interactions", timing.interactions);
+        row.put("providerStateMillis", toMillis(timing.providerStateNanos));
+        for (InteractionStep step : InteractionStep.values()) {
+            row.put(columnName(step), toMillis(timing.stepNanos.getOrDefault(step, 0L)));
+        }
+        row.put("requestBytes", timing.requestBytes);
+        row.put("responseBytes", timing.responseBytes);
+        report.workflows.add(row);
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static String columnName(InteractionStep step) {
+        StringBuilder column = new StringBuilder();
+        for (String word : step.name().toLowerCase().split("_")) {
+            column.append(column.length() == 0 ? word : Character.toUpperCase(word.charAt(0)) + word.substring(1));
+        }
+        return column.append("Millis").toString();
+    }
+
+    /**
+     * Steps of a workflow are reported from the thread verifying it, one after another, so each timing is only ever updated by
+     * one thread at a time.
+     */
+    private static class WorkflowTiming {
+
+        private long providerStateNanos;
+        private final Map<InteractionStep, Long> stepNanos = new EnumMap<>(InteractionStep.class);
+        private int interactions;
+        private long requestBytes;
+        private long responseBytes;
+    }
+
+    static class Report {
+
+        private final Queue<Map<String, Object>> resolutions = new ConcurrentLinkedQueue<>();
+        private final Queue<Map<String, Object>> workflows = new ConcurrentLinkedQueue<>();
+        private final ConcurrentMap<PactTestContext, WorkflowTiming> inProgress = new ConcurrentHashMap<>();
+        private final AtomicBoolean shutdownHookRegistered = new AtomicBoolean(false);
+
+        private WorkflowTiming timingOf(PactTestContext context) {
+            return inProgress.computeIfAbsent(context, key -> new WorkflowTiming());
+        }
+
+        /**
+         * Add the timings of every workflow verified so far to the CSV and JSON reports in a directory, creating them if needed.
+         * The CSV report is locked while both are merged, so that forked test JVMs sharing the directory all keep their timings.
+         */
+        void write(File directory) throws IOException {
+            Files.createDirectories(directory.toPath());
+            List<Map<String, Object>> rows = new ArrayList<>(workflows);
+
+            try (FileChannel csvChannel = FileChannel.open(new File(directory, CSV_REPORT).toPath(), CREATE, READ, WRITE)) {
+                FileLock lock = csvChannel.lock();
+                try {
+                    appendCsv(csvChannel, rows);
+                    mergeJson(new File(directory, JSON_REPORT), rows);
+                } finally {
+                    lock.release();
+                }
+            }
+        }
+
+        private static void appendCsv(FileChannel csvChannel, List<Map<String, Object>> rows) throws IOException {
+            String header = toCsvLine(COLUMNS);
+            boolean append = csvChannel.size() > 0 && header.equals(firstLine(csvChannel) + '\n');
+
+            if (append) {
+                csvChannel.position(csvChannel.size());
+            } else {
+                csvChannel.truncate(0);
+                csvChannel.position(0);
+            }
+            // the writer is not closed, as that would close the channel holding the lock
+            Writer writer = new BufferedWriter(Channels.newWriter(csvChannel, UTF_8.newEncoder(), -1));
+            if (!append) {
+                writer.write(header);
+            }
+            for (Map<String, Object> row : rows) {
+                writer.write(toCsvLine(row.values()));
+            }
+            writer.flush();
+        }
+
+        private void mergeJson(File jsonReport, List<Map<String, Object>> rows) throws IOException {
+            Gson gson = new GsonBuilder().setPrettyPrinting().create();
+            JsonObject json = readJsonReport(jsonReport);
+            appendAll(json, "resolutions", gson.toJsonTree(new ArrayList<>(resolutions)));
+            appendAll(json, "workflows", gson.toJsonTree(rows));
+
+            try (Writer writer = Files.newBufferedWriter(jsonReport.toPath(), UTF_8)) {
+                gson.toJson(json, writer);
+            }
+        }
+
+        private static String firstLine(FileChannel channel) throws IOException {
+            channel.position(0);
+            return new BufferedReader(Channels.newReader(channel, UTF_8.newDecoder(), -1)).readLine();
+        }
+
+        private static JsonObject readJsonReport(File jsonReport) throws IOException {
+            if (jsonReport.isFile()) {
+                try (Reader reader = Files.newBufferedReader(jsonReport.toPath(), UTF_8)) {
+                    JsonElement existing = JsonParser.parseReader(reader);
+                    if (existing.isJsonObject()) {
+                        return existing.getAsJsonObject();
+                    }
+                } catch (JsonParseException e) {
+                    LOG.warn("Replacing unreadable pact verification timing report " + jsonReport, e);
+                }
+            }
+            return new JsonObject();
+        }
+
+        private static void appendAll(JsonObject json, String member, JsonElement elements) {
+            JsonElement existing = json.get(member);
+            JsonArray array = existing != null && existing.isJsonArray() ? existing.getAsJsonArray() : new JsonArray();
+            array.addAll(elements.getAsJsonArray());
+            json.add(member, array);
+        }
+
+        private void registerShutdownHook(File directory) {
+            if (shutdownHookRegistered.compareAndSet(false, true)) {
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> writeQuietly(directory), "pact-timing-report"));
+            }
+        }
+
+        private void writeQuietly(File directory) {
+            if (workflows.isEmpty() && resolutions.isEmpty()) {
+                return;
+            }
+            try {
+                write(directory);
+            } catch (IOException e) {
+                LOG.error("Failed to write the pact verification timing report to " + directory, e);
+            }
+        }
+
+        private static String toCsvLine(Iterable<?> values) {
+            StringBuilder line = new StringBuilder();
+            for (Object value : values) {
+                if (line.length() > 0) {
+                    line.append(',');
+                }
+                String text = String.valueOf(value);
+                if (text.contains(",") || text.contains("\"") || text.contains("\n")) {
+                    text = '"' + text.replace("\"", "\"\"") + '"';
+                }
+                line.append(text);
+            }
+            return line.append('\n').toString();
+        }
+    }
+}
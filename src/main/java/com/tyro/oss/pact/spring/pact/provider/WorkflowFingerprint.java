@@ -0,0 +1,67 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.provider;
+
+import com.tyro.oss.pact.spring.pact.model.Pact;
+
+import java.util.Objects;
+
+/**
+ * Identifies workflows with the same provider states and interactions. Workflows that were parsed lazily are compared by
+ * the JSON of their interactions so that finding duplicates does not deserialise them.
+ */
+final class WorkflowFingerprint {
+
+    private final Pact.Workflow workflow;
+    private final String unparsedInteractions;
+    private final int hash;
+
+    WorkflowFingerprint(Pact.Workflow workflow) {
+        this.workflow = workflow;
+        this.unparsedInteractions = workflow.unparsedInteractions();
+        this.hash = unparsedInteractions == null
+                ? workflow.hashCode()
+                : 31 * Objects.hashCode(workflow.getProviderStates()) + unparsedInteractions.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof WorkflowFingerprint)) {
+            return false;
+        }
+        WorkflowFingerprint that = (WorkflowFingerprint) other;
+        if (hash != that.hash) {
+            return false;
+        }
+        if (unparsedInteractions == null || that.unparsedInteractions == null) {
+            return unparsedInteractions == null && that.unparsedInteractions == null && workflow.equals(that.workflow);
+        }
+        return unparsedInteractions.equals(that.unparsedInteractions)
+                && Objects.equals(workflow.getProviderStates(), that.workflow.getProviderStates());
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.provider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class WorkflowScheduler {
+
+    private final int parallelism;
+    private final Semaphore permits;
+    private final ReentrantReadWriteLock isolationLock = new ReentrantReadWriteLock(true);
+    private final ConcurrentMap<String, Lock> resourceLocks = new ConcurrentHashMap<>();
+
+    public WorkflowScheduler(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1 but was " + parallelism);
+        }
+        this.parallelism = parallelism;
+        this.permits = new Semaphore(parallelism, true);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Block until a workflow may run. At most {@code parallelism} workflows hold a permit at once, an isolated workflow runs
+     * alone and workflows sharing a resource lock run one at a time.
+     *
+     * @param resources Names of the resources the workflow's provider states mutate
+     * @param isolated  Whether the workflow must not run alongside any other workflow
+     * @return A permit that must be released once the workflow has finished
+     */
+    public Permit acquire(Set<String> resources, boolean isolated) throws InterruptedException {
+        List<Lock> held = new ArrayList<>();
+        permits.acquire();
+        try {
+            Lock globalLock = isolated ? isolationLock.writeLock() : isolationLock.readLock();
+            globalLock.lockInterruptibly();
+            held.add(globalLock);
+            for (String resource : new TreeSet<>(resources)) {
+                Lock resourceLock = resourceLocks.computeIfAbsent(resource, r -> new ReentrantLock(true));
+                resourceLock.lockInterruptibly();
+                held.add(resourceLock);
+            }
+            return new Permit(held);
+        } catch (InterruptedException | RuntimeException e) {
+            release(held);
+            throw e;
+        }
+    }
+
+    private void release(List<Lock> held) {
+        for (int i = held.size() - 1; i >= 0; i--) {
+            held.get(i).unlock();
+        }
+        permits.release();
+    }
+
+    public class Permit {
+
+        private final List<Lock> held;
+        private boolean released;
+
+        private Permit(List<Lock> held) {
+            this.held = held;
+        }
+
+        public void release() {
+            if (!released) {
+                released = true;
+                WorkflowScheduler.this.release(held);
+            }
+        }
+    }
+}
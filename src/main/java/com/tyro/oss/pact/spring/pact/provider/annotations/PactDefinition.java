@@ -40,4 +40,10 @@ public @interface PactDefinition {
     String[] pactVersions() default {};
 
     Class<? extends ObjectStringConverterSource> converterSource() default ObjectStringConverterSource.class;
+
+    /**
+     * Maximum number of workflows verified at the same time. Values above 1 take effect when JUnit parallel execution
+     * is enabled with junit.jupiter.execution.parallel.enabled=true.
+     */
+    int parallelism() default 1;
 }
@@ -29,4 +29,10 @@ import java.lang.annotation.Target;
 public @interface ProviderState {
 
     String value() default "";
+
+    /**
+     * Names of the shared resources this setup method mutates. When pacts are verified in parallel, workflows declaring
+     * the same resource run one at a time. A provider state without resource locks runs its workflow in isolation.
+     */
+    String[] resourceLocks() default {};
 }
@@ -0,0 +1,182 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.stub;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The read and write buffers of one client connection. Requests are parsed straight out of the read buffer, pipelined requests
+ * are answered in order, and connections are kept alive unless the client is on HTTP/1.0 or asks for them to be closed. Only
+ * requests with a Content-Length body are supported.
+ */
+final class HttpConnection {
+
+    static final int MAX_REQUEST_BYTES = 1024 * 1024;
+
+    private static final int INITIAL_BUFFER_BYTES = 8 * 1024;
+    private static final byte[] HEADER_END = {'\r', '\n', '\r', '\n'};
+
+    private ByteBuffer in = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+    private final Deque<ByteBuffer> out = new ArrayDeque<>();
+    private boolean closeAfterWrite;
+
+    /**
+     * @return false once the client has closed its side of the connection
+     */
+    boolean read(SocketChannel channel) throws IOException {
+        if (!in.hasRemaining()) {
+            grow(in.capacity() * 2);
+        }
+        return channel.read(in) >= 0;
+    }
+
+    /**
+     * Answer every complete request in the read buffer, leaving any partial request for the next read.
+     */
+    void process(RouteIndex routes) {
+        in.flip();
+        while (!closeAfterWrite && in.hasRemaining()) {
+            int headerEnd = indexOf(in, HEADER_END);
+            if (headerEnd < 0) {
+                if (in.remaining() >= MAX_REQUEST_BYTES) {
+                    fail(431, "Request Header Fields Too Large");
+                }
+                break;
+            }
+
+            int start = in.position();
+            String[] lines = new String(in.array(), start, headerEnd - start, ISO_8859_1).split("\r\n");
+            String[] requestLine = lines[0].split(" ");
+            if (requestLine.length != 3) {
+                fail(400, "Bad Request");
+                break;
+            }
+
+            int contentLength = 0;
+            boolean close = requestLine[2].equals("HTTP/1.0");
+            for (int i = 1; i < lines.length; i++) {
+                int colon = lines[i].indexOf(':');
+                if (colon < 0) {
+                    continue;
+                }
+                String name = lines[i].substring(0, colon).trim();
+                String value = lines[i].substring(colon + 1).trim();
+                if (name.equalsIgnoreCase("Content-Length")) {
+                    contentLength = parseContentLength(value);
+                } else if (name.equalsIgnoreCase("Transfer-Encoding") && !value.equalsIgnoreCase("identity")) {
+                    contentLength = -1;
+                } else if (name.equalsIgnoreCase("Connection")) {
+                    close = value.equalsIgnoreCase("close");
+                }
+            }
+            if (contentLength == -1) {
+                fail(411, "Length Required");
+                break;
+            }
+            if (contentLength < 0) {
+                fail(400, "Bad Request");
+                break;
+            }
+            if (contentLength > MAX_REQUEST_BYTES) {
+                fail(413, "Payload Too Large");
+                break;
+            }
+
+            int bodyStart = headerEnd + HEADER_END.length;
+            if (in.limit() - bodyStart < contentLength) {
+                if (in.capacity() < bodyStart - start + contentLength) {
+                    in.compact();
+                    grow(bodyStart - start + contentLength);
+                    in.flip();
+                }
+                break;
+            }
+
+            byte[] body = new byte[contentLength];
+            System.arraycopy(in.array(), bodyStart, body, 0, contentLength);
+            in.position(bodyStart + contentLength);
+
+            out.add(ByteBuffer.wrap(routes.respond(requestLine[0], requestLine[1], body)));
+            closeAfterWrite = close;
+        }
+        in.compact();
+    }
+
+    /**
+     * @return true once every response has been written
+     */
+    boolean write(SocketChannel channel) throws IOException {
+        while (!out.isEmpty()) {
+            channel.write(out.toArray(new ByteBuffer[0]));
+            while (!out.isEmpty() && !out.peek().hasRemaining()) {
+                out.poll();
+            }
+            if (!out.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean shouldClose() {
+        return closeAfterWrite && out.isEmpty();
+    }
+
+    private static int parseContentLength(String value) {
+        try {
+            int contentLength = Integer.parseInt(value);
+            return contentLength < 0 ? -2 : contentLength;
+        } catch (NumberFormatException e) {
+            return -2;
+        }
+    }
+
+    private void fail(int status, String reason) {
+        String body = "{\"error\":\"" + reason + "\"}";
+        String response = "HTTP/1.1 " + status + " " + reason + "\r\nContent-Type: application/json\r\nContent-Length: " + body.length()
+                + "\r\nConnection: close\r\n\r\n" + body;
+        out.add(ByteBuffer.wrap(response.getBytes(UTF_8)));
+        closeAfterWrite = true;
+    }
+
+    private void grow(int capacity) {
+        ByteBuffer larger = ByteBuffer.allocate(capacity);
+        in.flip();
+        larger.put(in);
+        in = larger;
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte[] pattern) {
+        byte[] bytes = buffer.array();
+        for (int i = buffer.position(); i <= buffer.limit() - pattern.length; i++) {
+            if (bytes[i] == pattern[0] && bytes[i + 1] == pattern[1] && bytes[i + 2] == pattern[2] && bytes[i + 3] == pattern[3]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
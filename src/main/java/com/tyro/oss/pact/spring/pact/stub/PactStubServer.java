@@ -0,0 +1,259 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.stub;
+
+import com.google.gson.GsonBuilder;
+import com.tyro.oss.pact.spring.pact.model.Pact;
+import com.tyro.oss.pact.spring.util.GsonStringConverter;
+import com.tyro.oss.pact.spring.util.ObjectStringConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Serves the recorded responses of one or more pacts over HTTP, so that consumers can be tested against their contracts without
+ * mocking their RestTemplate. Each response is serialised once when the pacts are loaded, and requests are answered by a single
+ * non-blocking event loop.
+ * <p>
+ * Run it on its own with {@code java -cp ... com.tyro.oss.pact.spring.pact.stub.PactStubServer [--host <host>] [--port <port>]
+ * <pact file>...}. The hit count of every route is logged when the server is closed.
+ */
+public class PactStubServer implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PactStubServer.class);
+
+    private final RouteIndex routes;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Thread eventLoop;
+    private volatile boolean running = true;
+
+    private PactStubServer(RouteIndex routes, InetSocketAddress address) throws IOException {
+        this.routes = routes;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address, 1024);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        this.eventLoop = new Thread(this::run, "pact-stub-server-" + getPort());
+        eventLoop.setDaemon(true);
+        eventLoop.start();
+    }
+
+    /**
+     * Serve the interactions of some pacts on the loopback interface.
+     *
+     * @param port The port to listen on, or 0 for any free port
+     */
+    public static PactStubServer start(int port, Collection<Pact> pacts) {
+        return start(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), pacts);
+    }
+
+    /**
+     * Serve the interactions of some pacts on an address.
+     */
+    public static PactStubServer start(InetSocketAddress address, Collection<Pact> pacts) {
+        RouteIndex routes = new RouteIndex(pacts);
+        try {
+            PactStubServer server = new PactStubServer(routes, address);
+            LOG.info(String.format("Serving %d recorded routes on port %d", routes.size(), server.getPort()));
+            return server;
+        } catch (IOException e) {
+            throw new RuntimeException("Could not start the pact stub server on " + address, e);
+        }
+    }
+
+    /**
+     * Serve the interactions of some pact files on the loopback interface.
+     *
+     * @param port The port to listen on, or 0 for any free port
+     */
+    public static PactStubServer start(int port, ObjectStringConverter jsonConverter, File... pactFiles) {
+        return start(port, loadPacts(jsonConverter, Arrays.asList(pactFiles)));
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * @return The number of distinct requests this server answers
+     */
+    public int getRouteCount() {
+        return routes.size();
+    }
+
+    /**
+     * @return How many requests each route has served, keyed by its method and URI, with requests that matched no recorded
+     * interaction counted under {@code UNMATCHED}
+     */
+    public Map<String, Long> getHitCounts() {
+        return routes.hitCounts();
+    }
+
+    /**
+     * Stop serving, close every connection and log the hit count of each route.
+     */
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+        try {
+            eventLoop.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        getHitCounts().forEach((route, hits) -> LOG.info(String.format("%8d %s", hits, route)));
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> selectedKeys = selector.selectedKeys().iterator();
+                while (selectedKeys.hasNext()) {
+                    SelectionKey key = selectedKeys.next();
+                    selectedKeys.remove();
+                    try {
+                        handle(key);
+                    } catch (IOException | RuntimeException e) {
+                        LOG.debug("Closing pact stub connection after an error", e);
+                        closeConnection(key);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOG.error("Pact stub server on port " + getPort() + " stopped unexpectedly", e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                closeConnection(key);
+            }
+            closeQuietly(selector);
+        }
+    }
+
+    private void handle(SelectionKey key) throws IOException {
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isAcceptable()) {
+            SocketChannel channel;
+            while ((channel = serverChannel.accept()) != null) {
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                channel.register(selector, SelectionKey.OP_READ, new HttpConnection());
+            }
+            return;
+        }
+
+        SocketChannel channel = (SocketChannel) key.channel();
+        HttpConnection connection = (HttpConnection) key.attachment();
+        if (key.isReadable()) {
+            if (!connection.read(channel)) {
+                closeConnection(key);
+                return;
+            }
+            connection.process(routes);
+        }
+
+        if (connection.write(channel)) {
+            if (connection.shouldClose()) {
+                closeConnection(key);
+            } else {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        } else {
+            key.interestOps(SelectionKey.OP_WRITE);
+        }
+    }
+
+    private static void closeConnection(SelectionKey key) {
+        key.cancel();
+        closeQuietly(key.channel());
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            LOG.debug("Could not close " + closeable, e);
+        }
+    }
+
+    private static List<Pact> loadPacts(ObjectStringConverter jsonConverter, List<File> pactFiles) {
+        List<Pact> pacts = new ArrayList<>();
+        for (File pactFile : pactFiles) {
+            try (InputStream json = new FileInputStream(pactFile)) {
+                pacts.add(Pact.parse(json, jsonConverter));
+            } catch (IOException e) {
+                throw new RuntimeException("Could not read pact file " + pactFile, e);
+            }
+        }
+        return pacts;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        String host = InetAddress.getLoopbackAddress().getHostAddress();
+        int port = 0;
+        List<File> pactFiles = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--host") && i + 1 < args.length) {
+                host = args[++i];
+            } else if (args[i].equals("--port") && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else {
+                pactFiles.add(new File(args[i]));
+            }
+        }
+        if (pactFiles.isEmpty()) {
+            System.err.println("Usage: PactStubServer [--host <host>] [--port <port>] <pact file>...");
+            System.exit(1);
+        }
+
+        List<Pact> pacts = loadPacts(new GsonStringConverter(new GsonBuilder().create()), pactFiles);
+        PactStubServer server = start(new InetSocketAddress(host, port), pacts);
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            stopped.countDown();
+        }, "pact-stub-server-shutdown"));
+        stopped.await();
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.stub;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.tyro.oss.pact.spring.pact.model.Pact;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Every recorded interaction of a set of pacts, indexed by method and path. Interactions sharing a method and path are told
+ * apart by their query string and then by their request body, compared as canonical JSON when it is JSON. Interactions with
+ * no recorded body match any body. When several interactions have the same request, the first one recorded is served.
+ */
+final class RouteIndex {
+
+    static final String UNMATCHED = "UNMATCHED";
+
+    private final Map<String, List<Route>> routes = new HashMap<>();
+    private final List<Route> allRoutes = new ArrayList<>();
+    private final LongAdder unmatched = new LongAdder();
+
+    RouteIndex(Collection<Pact> pacts) {
+        for (Pact pact : pacts) {
+            for (Pact.Workflow workflow : pact.getWorkFlows().values()) {
+                for (Pact.Interaction interaction : workflow.getInteractions()) {
+                    add(interaction);
+                }
+            }
+        }
+    }
+
+    private void add(Pact.Interaction interaction) {
+        Pact.InteractionRequest request = interaction.getRequest();
+        String method = request.getMethod().name();
+        String uri = request.getUri();
+        String query = queryOf(uri);
+        String body = canonicalBody(request.getBody());
+
+        List<Route> candidates = routes.computeIfAbsent(key(method, pathOf(uri)), key -> new ArrayList<>());
+        for (Route candidate : candidates) {
+            if (StringUtils.equals(candidate.query, query) && StringUtils.equals(candidate.body, body)) {
+                return;
+            }
+        }
+
+        Pact.InteractionResponse response = interaction.getResponse();
+        Route route = new Route(method + " " + uri + (body == null ? "" : String.format(" {body#%08x}", body.hashCode())), query, body,
+                serialise(response.getStatus(), response.getHeaders(), response.getBody()));
+        candidates.add(route);
+        allRoutes.add(route);
+    }
+
+    int size() {
+        return allRoutes.size();
+    }
+
+    /**
+     * @return The complete HTTP response to send for a request, counting the hit against its route
+     */
+    byte[] respond(String method, String target, byte[] body) {
+        Route route = find(method, target, body);
+        if (route == null) {
+            unmatched.increment();
+            String message = "{\"error\":\"No recorded interaction for " + method + " " + target.replace("\"", "\\\"") + "\"}";
+            return serialise(HttpStatus.NOT_FOUND.value(), jsonContentType(), message);
+        }
+        route.hits.increment();
+        return route.response;
+    }
+
+    private Route find(String method, String target, byte[] body) {
+        List<Route> candidates = routes.get(key(method, pathOf(target)));
+        if (candidates == null) {
+            return null;
+        }
+
+        String query = queryOf(target);
+        String canonicalBody = null;
+        Route anyBody = null;
+        for (Route candidate : candidates) {
+            if (!StringUtils.equals(candidate.query, query)) {
+                continue;
+            }
+            if (candidate.body == null) {
+                if (anyBody == null) {
+                    anyBody = candidate;
+                }
+                continue;
+            }
+            if (canonicalBody == null) {
+                canonicalBody = StringUtils.defaultString(canonicalBody(new String(body, UTF_8)));
+            }
+            if (candidate.bodyHash == canonicalBody.hashCode() && candidate.body.equals(canonicalBody)) {
+                return candidate;
+            }
+        }
+        return anyBody;
+    }
+
+    /**
+     * @return Requests served per route in the order the routes were recorded, followed by the requests that matched no route
+     */
+    Map<String, Long> hitCounts() {
+        Map<String, Long> hitCounts = new LinkedHashMap<>();
+        for (Route route : allRoutes) {
+            hitCounts.merge(route.description, route.hits.sum(), Long::sum);
+        }
+        hitCounts.put(UNMATCHED, unmatched.sum());
+        return Collections.unmodifiableMap(hitCounts);
+    }
+
+    private static String key(String method, String path) {
+        return method + " " + path;
+    }
+
+    private static String pathOf(String uri) {
+        int query = uri.indexOf('?');
+        return query < 0 ? uri : uri.substring(0, query);
+    }
+
+    private static String queryOf(String uri) {
+        int query = uri.indexOf('?');
+        return query < 0 || query == uri.length() - 1 ? null : uri.substring(query + 1);
+    }
+
+    static String canonicalBody(String body) {
+        if (StringUtils.isBlank(body)) {
+            return null;
+        }
+        try {
+            return sortKeys(JsonParser.parseString(body)).toString();
+        } catch (JsonParseException e) {
+            return body;
+        }
+    }
+
+    private static JsonElement sortKeys(JsonElement element) {
+        if (element.isJsonObject()) {
+            Map<String, JsonElement> sorted = new TreeMap<>();
+            for (Map.Entry<String, JsonElement> member : element.getAsJsonObject().entrySet()) {
+                sorted.put(member.getKey(), sortKeys(member.getValue()));
+            }
+            JsonObject object = new JsonObject();
+            sorted.forEach(object::add);
+            return object;
+        }
+        if (element.isJsonArray()) {
+            JsonArray array = new JsonArray();
+            for (JsonElement item : element.getAsJsonArray()) {
+                array.add(sortKeys(item));
+            }
+            return array;
+        }
+        return element;
+    }
+
+    private static HttpHeaders jsonContentType() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, "application/json");
+        return headers;
+    }
+
+    static byte[] serialise(int status, HttpHeaders headers, String body) {
+        byte[] content = body == null ? new byte[0] : body.getBytes(UTF_8);
+        HttpStatus httpStatus = HttpStatus.resolve(status);
+
+        StringBuilder head = new StringBuilder("HTTP/1.1 ").append(status).append(' ')
+                .append(httpStatus == null ? "" : httpStatus.getReasonPhrase()).append("\r\n");
+        if (headers != null) {
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                if (isHopByHop(header.getKey())) {
+                    continue;
+                }
+                for (String value : header.getValue()) {
+                    head.append(header.getKey()).append(": ").append(value).append("\r\n");
+                }
+            }
+        }
+        if (status >= 200 && status != 204 && status != 304) {
+            head.append("Content-Length: ").append(content.length).append("\r\n");
+        }
+        head.append("\r\n");
+
+        byte[] headBytes = head.toString().getBytes(ISO_8859_1);
+        byte[] response = new byte[headBytes.length + content.length];
+        System.arraycopy(headBytes, 0, response, 0, headBytes.length);
+        System.arraycopy(content, 0, response, headBytes.length, content.length);
+        return response;
+    }
+
+    private static boolean isHopByHop(String header) {
+        return header.equalsIgnoreCase(HttpHeaders.CONTENT_LENGTH)
+                || header.equalsIgnoreCase(HttpHeaders.TRANSFER_ENCODING)
+                || header.equalsIgnoreCase(HttpHeaders.CONNECTION);
+    }
+
+    private static final class Route {
+
+        private final String description;
+        private final String query;
+        private final String body;
+        private final int bodyHash;
+        private final byte[] response;
+        private final LongAdder hits = new LongAdder();
+
+        private Route(String description, String query, String body, byte[] response) {
+            this.description = description;
+            this.query = query;
+            this.body = body;
+            this.bodyHash = body == null ? 0 : body.hashCode();
+            this.response = response;
+        }
+    }
+}
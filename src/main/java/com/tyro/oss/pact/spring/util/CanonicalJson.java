@@ -0,0 +1,117 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.util;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonWriter;
+
+import org.apache.commons.io.output.NullOutputStream;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public final class CanonicalJson {
+
+    private CanonicalJson() {
+    }
+
+    /**
+     * Rewrite a JSON document without insignificant whitespace and with the fields of every object sorted by name, so that
+     * documents that differ only in formatting or field order become identical.
+     */
+    public static String canonicalise(String json) {
+        StringWriter canonical = new StringWriter(json.length());
+        try (JsonWriter writer = new JsonWriter(canonical)) {
+            writer.setSerializeNulls(true);
+            write(JsonParser.parseString(json), writer);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return canonical.toString();
+    }
+
+    /**
+     * @return The SHA-256 of the canonical form of a JSON document, as hex
+     */
+    public static String digest(String json) {
+        return digest(new StringReader(json));
+    }
+
+    /**
+     * The SHA-256 of the canonical form of a JSON document, hashed as it is written rather than held as a string. The reader is
+     * left open.
+     *
+     * @return The SHA-256 as hex, the same as {@link #digest(String)} of the document
+     */
+    public static String digest(Reader json) {
+        MessageDigest messageDigest = Digests.sha256();
+        try (JsonWriter writer = new JsonWriter(new BufferedWriter(new OutputStreamWriter(new DigestOutputStream(NullOutputStream.NULL_OUTPUT_STREAM, messageDigest), UTF_8)))) {
+            writer.setSerializeNulls(true);
+            write(JsonParser.parseReader(json), writer);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return Digests.hex(messageDigest.digest());
+    }
+
+    private static void write(JsonElement element, JsonWriter writer) throws IOException {
+        if (element.isJsonObject()) {
+            writer.beginObject();
+            Map<String, JsonElement> sortedFields = new TreeMap<>();
+            for (Map.Entry<String, JsonElement> field : element.getAsJsonObject().entrySet()) {
+                sortedFields.put(field.getKey(), field.getValue());
+            }
+            for (Map.Entry<String, JsonElement> field : sortedFields.entrySet()) {
+                writer.name(field.getKey());
+                write(field.getValue(), writer);
+            }
+            writer.endObject();
+        } else if (element.isJsonArray()) {
+            writer.beginArray();
+            for (JsonElement item : element.getAsJsonArray()) {
+                write(item, writer);
+            }
+            writer.endArray();
+        } else if (element.isJsonNull()) {
+            writer.nullValue();
+        } else {
+            JsonPrimitive primitive = element.getAsJsonPrimitive();
+            if (primitive.isBoolean()) {
+                writer.value(primitive.getAsBoolean());
+            } else if (primitive.isNumber()) {
+                writer.value(primitive.getAsNumber());
+            } else {
+                writer.value(primitive.getAsString());
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public final class Digests {
+
+    private Digests() {
+    }
+
+    public static String sha256Hex(String content) {
+        return sha256Hex(content.getBytes(UTF_8));
+    }
+
+    public static String sha256Hex(byte[] content) {
+        return hex(sha256().digest(content));
+    }
+
+    /**
+     * The SHA-256 of a stream, read to its end without holding it in memory. The stream is left open.
+     */
+    public static String sha256Hex(InputStream content) throws IOException {
+        MessageDigest messageDigest = sha256();
+        byte[] buffer = new byte[8192];
+        for (int read = content.read(buffer); read != -1; read = content.read(buffer)) {
+            messageDigest.update(buffer, 0, read);
+        }
+        return hex(messageDigest.digest());
+    }
+
+    /**
+     * A new SHA-256 digest, for content that is hashed as it is streamed.
+     */
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static String hex(byte[] digest) {
+        StringBuilder hex = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+}
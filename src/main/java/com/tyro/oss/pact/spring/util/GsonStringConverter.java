@@ -24,6 +24,7 @@ import com.google.gson.JsonSyntaxException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Reader;
 import java.lang.reflect.Type;
 
 public class GsonStringConverter implements ObjectStringConverter {
@@ -55,7 +56,27 @@ public class GsonStringConverter implements ObjectStringConverter {
         try {
             return gson.fromJson(message, type);
         } catch (JsonSyntaxException jsonSyntaxException) {
-            LOG.error("Error parsing JSON into a" + type.toString());
+            LOG.error("Error parsing JSON into a " + type.toString());
+            throw jsonSyntaxException;
+        }
+    }
+
+    @Override
+    public <T> T fromReader(Reader reader, Class<T> clazz) {
+        try {
+            return gson.fromJson(reader, clazz);
+        } catch (JsonSyntaxException jsonSyntaxException) {
+            LOG.error("Error parsing JSON into a " + clazz.getCanonicalName());
+            throw jsonSyntaxException;
+        }
+    }
+
+    @Override
+    public <T> T fromReader(Reader reader, Type type) {
+        try {
+            return gson.fromJson(reader, type);
+        } catch (JsonSyntaxException jsonSyntaxException) {
+            LOG.error("Error parsing JSON into a " + type.toString());
             throw jsonSyntaxException;
         }
     }
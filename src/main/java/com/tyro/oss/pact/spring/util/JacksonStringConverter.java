@@ -20,9 +20,11 @@
 package com.tyro.oss.pact.spring.util;
 
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.lang.reflect.Type;
 
 public class JacksonStringConverter implements ObjectStringConverter {
@@ -56,6 +58,28 @@ public class JacksonStringConverter implements ObjectStringConverter {
         }
     }
 
+    @Override
+    public <T> T fromReader(Reader reader, Class<T> clazz) {
+        try (JsonParser parser = createParserLeavingReaderOpen(reader)) {
+            return objectMapper.readValue(parser, clazz);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    @Override
+    public <T> T fromReader(Reader reader, Type type) {
+        try (JsonParser parser = createParserLeavingReaderOpen(reader)) {
+            return objectMapper.readValue(parser, objectMapper.getTypeFactory().constructType(type));
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private JsonParser createParserLeavingReaderOpen(Reader reader) throws IOException {
+        return objectMapper.getFactory().createParser(reader).disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+    }
+
     @Override
     public String fromObject(Object object) {
         try {
@@ -0,0 +1,97 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.util;
+
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonSchemaFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class JsonSchemaCache {
+
+    private static final int DEFAULT_MAXIMUM_SIZE = 256;
+    private static final JsonSchemaCache INSTANCE = new JsonSchemaCache(Integer.getInteger("pact.schema.cache.size", DEFAULT_MAXIMUM_SIZE));
+
+    private final JsonSchemaFactory jsonSchemaFactory = JsonSchemaFactory.getInstance();
+    private final Map<String, JsonSchema> schemas;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    JsonSchemaCache(int maximumSize) {
+        this.schemas = new LinkedHashMap<String, JsonSchema>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, JsonSchema> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    public static JsonSchemaCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Return the compiled form of a schema, compiling it only if an identical schema is not already cached.
+     *
+     * @param unparsedSchema The schema as JSON
+     * @return The compiled schema
+     */
+    public JsonSchema getSchema(String unparsedSchema) {
+        String key = Digests.sha256Hex(unparsedSchema);
+        synchronized (schemas) {
+            JsonSchema schema = schemas.get(key);
+            if (schema != null) {
+                hits.incrementAndGet();
+                return schema;
+            }
+        }
+
+        misses.incrementAndGet();
+        JsonSchema schema = jsonSchemaFactory.getSchema(unparsedSchema);
+        synchronized (schemas) {
+            JsonSchema existing = schemas.putIfAbsent(key, schema);
+            return existing != null ? existing : schema;
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public int size() {
+        synchronized (schemas) {
+            return schemas.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (schemas) {
+            schemas.clear();
+        }
+        hits.set(0);
+        misses.set(0);
+    }
+}
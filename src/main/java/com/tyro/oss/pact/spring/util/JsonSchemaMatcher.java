@@ -22,7 +22,6 @@ package com.tyro.oss.pact.spring.util;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.networknt.schema.JsonSchema;
-import com.networknt.schema.JsonSchemaFactory;
 import com.networknt.schema.ValidationMessage;
 import org.hamcrest.Description;
 import org.hamcrest.TypeSafeDiagnosingMatcher;
@@ -34,6 +33,8 @@ import static java.util.stream.Collectors.toList;
 
 public class JsonSchemaMatcher extends TypeSafeDiagnosingMatcher<String> {
 
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
     public static JsonSchemaMatcher matchesSchema(String schema) {
         return new JsonSchemaMatcher(schema);
     }
@@ -43,8 +44,7 @@ public class JsonSchemaMatcher extends TypeSafeDiagnosingMatcher<String> {
 
     private JsonSchemaMatcher(String unparsedSchema) {
         this.unparsedSchema = unparsedSchema;
-        JsonSchemaFactory jsonSchemaFactory = JsonSchemaFactory.getInstance();
-        this.schema = jsonSchemaFactory.getSchema(unparsedSchema);
+        this.schema = JsonSchemaCache.getInstance().getSchema(unparsedSchema);
     }
 
     @Override
@@ -54,8 +54,7 @@ public class JsonSchemaMatcher extends TypeSafeDiagnosingMatcher<String> {
 
     @Override
     protected boolean matchesSafely(String item, Description mismatchDescription) {
-        ObjectMapper objectMapper = new ObjectMapper();
-        JsonNode jsonNode = getJsonNode(item, objectMapper);
+        JsonNode jsonNode = getJsonNode(item);
 
         List<String> validationMessages = schema.validate(jsonNode)
                 .stream()
@@ -67,10 +66,10 @@ public class JsonSchemaMatcher extends TypeSafeDiagnosingMatcher<String> {
         return validationMessages.isEmpty();
     }
 
-    private JsonNode getJsonNode(String content, ObjectMapper objectMapper) {
+    private JsonNode getJsonNode(String content) {
         JsonNode jsonNode;
         try {
-            jsonNode = objectMapper.readTree(content);
+            jsonNode = OBJECT_MAPPER.readTree(content);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
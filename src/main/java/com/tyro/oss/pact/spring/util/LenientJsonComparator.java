@@ -0,0 +1,172 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.util;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.util.Map;
+
+public final class LenientJsonComparator {
+
+    private LenientJsonComparator() {
+    }
+
+    /**
+     * Compare two JSON documents the way JSONAssert does in lenient mode: the actual document may contain fields that are not
+     * expected, and array elements may appear in any order.
+     *
+     * @param expectedJson The expected JSON document
+     * @param actualJson   The actual JSON document
+     * @return A description of the first difference, prefixed with its JSON path, or null if the documents match
+     */
+    public static String findFirstDifference(String expectedJson, String actualJson) {
+        return findFirstDifference(JsonParser.parseString(expectedJson), JsonParser.parseString(actualJson));
+    }
+
+    /**
+     * Compare two parsed JSON trees, see {@link #findFirstDifference(String, String)}.
+     */
+    public static String findFirstDifference(JsonElement expected, JsonElement actual) {
+        Difference difference = new Difference();
+        return matches(expected, actual, difference) ? null : difference.toString();
+    }
+
+    private static boolean matches(JsonElement expected, JsonElement actual, Difference difference) {
+        if (expected.isJsonObject()) {
+            if (!actual.isJsonObject()) {
+                return difference != null && difference.describe("expected an object but was ", actual);
+            }
+            return objectMatches(expected.getAsJsonObject(), actual.getAsJsonObject(), difference);
+        }
+        if (expected.isJsonArray()) {
+            if (!actual.isJsonArray()) {
+                return difference != null && difference.describe("expected an array but was ", actual);
+            }
+            return arrayMatches(expected.getAsJsonArray(), actual.getAsJsonArray(), difference);
+        }
+        return expected.equals(actual) || difference != null && difference.describe("expected " + expected + " but was ", actual);
+    }
+
+    private static boolean objectMatches(JsonObject expected, JsonObject actual, Difference difference) {
+        for (Map.Entry<String, JsonElement> field : expected.entrySet()) {
+            JsonElement actualValue = actual.get(field.getKey());
+            if (actualValue == null) {
+                return difference != null && difference.enterField(field.getKey()).describe("expected " + field.getValue() + " but none found", null);
+            }
+            if (difference == null) {
+                if (!matches(field.getValue(), actualValue, null)) {
+                    return false;
+                }
+            } else {
+                int pathLength = difference.pathLength();
+                if (!matches(field.getValue(), actualValue, difference.enterField(field.getKey()))) {
+                    return false;
+                }
+                difference.leave(pathLength);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Give each expected element, in order, the first unused actual element that matches it. This is the search JSONAssert
+     * makes in lenient mode, so both agree even where a different pairing of the elements would have matched. An array that
+     * is already in order costs one comparison per element.
+     */
+    private static boolean arrayMatches(JsonArray expected, JsonArray actual, Difference difference) {
+        int size = expected.size();
+        if (actual.size() != size) {
+            return difference != null && difference.describe("expected " + size + " elements but was " + actual.size(), null);
+        }
+
+        boolean[] used = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            int candidate = findUnusedMatch(expected.get(i), actual, used);
+            if (candidate < 0) {
+                if (difference == null) {
+                    return false;
+                }
+                difference.enterIndex(i);
+                if (used[i]) {
+                    return difference.describe("no unmatched element equals " + expected.get(i), null);
+                }
+                matches(expected.get(i), actual.get(i), difference);
+                difference.append(", and no other element matches");
+                return false;
+            }
+            used[candidate] = true;
+        }
+        return true;
+    }
+
+    private static int findUnusedMatch(JsonElement expected, JsonArray actual, boolean[] used) {
+        for (int j = 0; j < used.length; j++) {
+            if (!used[j] && matches(expected, actual.get(j), null)) {
+                return j;
+            }
+        }
+        return -1;
+    }
+
+    private static class Difference {
+
+        private final StringBuilder path = new StringBuilder("$");
+        private final StringBuilder description = new StringBuilder();
+
+        int pathLength() {
+            return path.length();
+        }
+
+        Difference enterField(String name) {
+            path.append('.').append(name);
+            return this;
+        }
+
+        void enterIndex(int index) {
+            path.append('[').append(index).append(']');
+        }
+
+        void leave(int length) {
+            path.setLength(length);
+        }
+
+        boolean describe(String text, JsonElement actual) {
+            if (description.length() == 0) {
+                description.append(path).append(": ").append(text);
+                if (actual != null) {
+                    description.append(actual);
+                }
+            }
+            return false;
+        }
+
+        void append(String text) {
+            description.append(text);
+        }
+
+        @Override
+        public String toString() {
+            return description.toString();
+        }
+    }
+}
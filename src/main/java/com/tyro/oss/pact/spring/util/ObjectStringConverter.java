@@ -19,6 +19,10 @@
  */
 package com.tyro.oss.pact.spring.util;
 
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.Reader;
 import java.lang.reflect.Type;
 
 public interface ObjectStringConverter {
@@ -26,6 +30,29 @@ public interface ObjectStringConverter {
 
     <T> T fromString(String message, Type type);
 
+    /**
+     * Deserialise a document read from the reader, which is left open. Implementations should override this to parse
+     * without reading the whole document into memory first.
+     */
+    default <T> T fromReader(Reader reader, Class<T> clazz) {
+        try {
+            return fromString(IOUtils.toString(reader), clazz);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read JSON into a " + clazz.getCanonicalName(), e);
+        }
+    }
+
+    /**
+     * Deserialise a document read from the reader, which is left open.
+     */
+    default <T> T fromReader(Reader reader, Type type) {
+        try {
+            return fromString(IOUtils.toString(reader), type);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read JSON into a " + type, e);
+        }
+    }
+
     String fromObject(Object object);
 
     String fromObject(Object object, Type type);
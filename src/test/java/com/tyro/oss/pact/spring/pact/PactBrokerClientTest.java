@@ -0,0 +1,100 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+
+import java.io.ByteArrayOutputStream;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+class PactBrokerClientTest {
+
+    private final StubBroker broker = new StubBroker();
+
+    PactBrokerClientTest() throws Exception {
+    }
+
+    @AfterEach
+    void stopBroker() {
+        System.clearProperty(PactBrokerUrlSource.PACT_BROKER_HTTP_GZIP_REQUESTS_PROPERTY);
+        broker.close();
+    }
+
+    @Test
+    void shouldReuseConnectionsAcrossRequests() {
+        broker.respond("/pacts", "{}", 0);
+
+        try (PactBrokerClient client = new PactBrokerClient(new PactBrokerUrlSource())) {
+            for (int i = 0; i < 5; i++) {
+                client.getRestTemplate().getForObject(broker.getUrl() + "/pacts", String.class);
+            }
+        }
+
+        assertThat(broker.getRequests().size(), is(5));
+        assertThat(new HashSet<>(broker.getClientPorts()).size(), is(1));
+    }
+
+    @Test
+    void shouldAcceptGzipResponses() {
+        broker.on("/pacts", exchange -> {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write("{\"workFlows\":{}}".getBytes(UTF_8));
+            }
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, compressed.size());
+            exchange.getResponseBody().write(compressed.toByteArray());
+        });
+
+        try (PactBrokerClient client = new PactBrokerClient(new PactBrokerUrlSource())) {
+            String body = client.getRestTemplate().getForObject(broker.getUrl() + "/pacts", String.class);
+
+            assertThat(body, is("{\"workFlows\":{}}"));
+            assertThat(broker.getRequestHeaders().get(0).getFirst("Accept-Encoding").contains("gzip"), is(true));
+        }
+    }
+
+    @Test
+    void shouldGzipRequestBodiesWhenConfigured() {
+        System.setProperty(PactBrokerUrlSource.PACT_BROKER_HTTP_GZIP_REQUESTS_PROPERTY, "true");
+        AtomicReference<String> received = new AtomicReference<>();
+        broker.on("/pacts", exchange -> {
+            received.set(IOUtils.toString(new GZIPInputStream(exchange.getRequestBody()), UTF_8));
+            StubBroker.send(exchange, 200, "");
+        });
+
+        try (PactBrokerClient client = new PactBrokerClient(new PactBrokerUrlSource())) {
+            client.getRestTemplate().put(broker.getUrl() + "/pacts", new HttpEntity<>("{\"workFlows\":{}}"));
+        }
+
+        assertThat(broker.getRequestHeaders().get(0).getFirst("Content-Encoding"), is("gzip"));
+        assertThat(received.get(), is("{\"workFlows\":{}}"));
+    }
+}
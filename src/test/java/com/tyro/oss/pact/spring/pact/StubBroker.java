@@ -0,0 +1,139 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class StubBroker implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Map<String, Handler> handlers = new ConcurrentHashMap<>();
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private final List<Headers> requestHeaders = new CopyOnWriteArrayList<>();
+    private final List<Integer> clientPorts = new CopyOnWriteArrayList<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    public StubBroker() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String getUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public StubBroker on(String path, Handler handler) {
+        handlers.put(path, handler);
+        return this;
+    }
+
+    public StubBroker respond(String path, String body, long delayMillis) {
+        return on(path, exchange -> {
+            Thread.sleep(delayMillis);
+            send(exchange, 200, body);
+        });
+    }
+
+    public List<String> getRequests() {
+        return requests;
+    }
+
+    public List<Headers> getRequestHeaders() {
+        return requestHeaders;
+    }
+
+    public List<Integer> getClientPorts() {
+        return clientPorts;
+    }
+
+    public int getMaxRequestsInFlight() {
+        return maxInFlight.get();
+    }
+
+    public static void send(HttpExchange exchange, int status, String body) throws IOException {
+        drain(exchange.getRequestBody());
+        byte[] bytes = body.getBytes(UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            if (bytes.length > 0) {
+                responseBody.write(bytes);
+            }
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            String path = exchange.getRequestURI().getPath();
+            requests.add(exchange.getRequestMethod() + " " + path);
+            requestHeaders.add(exchange.getRequestHeaders());
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            Handler handler = handlers.get(path);
+            if (handler == null) {
+                send(exchange, 404, "");
+            } else {
+                handler.handle(exchange);
+            }
+        } catch (Exception e) {
+            send(exchange, 500, String.valueOf(e));
+        } finally {
+            inFlight.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    private static void drain(InputStream requestBody) throws IOException {
+        byte[] buffer = new byte[8192];
+        while (requestBody.read(buffer) >= 0) {
+            // an unread request body makes the server drop the keep-alive connection
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public interface Handler {
+        void handle(HttpExchange exchange) throws Exception;
+    }
+}
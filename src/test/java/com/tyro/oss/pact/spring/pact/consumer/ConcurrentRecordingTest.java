@@ -0,0 +1,110 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.consumer;
+
+import com.google.gson.GsonBuilder;
+import com.tyro.oss.pact.rest.RestRequestDescriptor;
+import com.tyro.oss.pact.spring.pact.model.Pact;
+import com.tyro.oss.pact.spring.util.GsonStringConverter;
+import com.tyro.oss.pact.spring.util.ObjectStringConverter;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+class ConcurrentRecordingTest {
+
+    private static final int THREADS = 16;
+    private static final int INTERACTIONS_PER_THREAD = 50;
+
+    private final ObjectStringConverter converter = new GsonStringConverter(new GsonBuilder().create());
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldNotLoseInteractionsRecordedFromManyThreads() throws Exception {
+        File pactFile = tempDir.resolve("concurrent_provider_pacts.json").toFile();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startingGun = new CountDownLatch(1);
+
+        try {
+            List<Future<?>> recorders = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                String workflowId = thread % 2 == 0 ? "workflow-" + thread : "shared-workflow";
+                RecordingMode recordingMode = RecordingMode.values()[thread % RecordingMode.values().length];
+                recorders.add(executor.submit(() -> {
+                    startingGun.await();
+                    record(pactFile, workflowId, recordingMode);
+                    return null;
+                }));
+            }
+
+            startingGun.countDown();
+            for (Future<?> recorder : recorders) {
+                recorder.get(60, SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        PactFileRegistry.getInstance().flushAll();
+
+        Pact pact = Pact.parse(FileUtils.readFileToString(pactFile, UTF_8), converter);
+
+        assertThat(pact.getWorkFlows().size(), is(THREADS / 2 + 1));
+        assertThat(pact.getWorkFlows().get("shared-workflow").getInteractions().size(), is(THREADS / 2 * INTERACTIONS_PER_THREAD));
+        for (int thread = 0; thread < THREADS; thread += 2) {
+            assertThat(pact.getWorkFlows().get("workflow-" + thread).getInteractions().size(), is(INTERACTIONS_PER_THREAD));
+        }
+        assertThat(tempDir.toFile().list((dir, name) -> name.endsWith(".journal")).length, is(0));
+    }
+
+    private void record(File pactFile, String workflowId, RecordingMode recordingMode) {
+        RestTemplate restTemplate = new RestTemplate();
+        TuPactRecordingServer server = TuPactRecordingServer.createServer(restTemplate, pactFile, converter)
+                .withRecordingMode(recordingMode);
+        server.startWorkflow(workflowId);
+
+        for (int i = 0; i < INTERACTIONS_PER_THREAD; i++) {
+            server.expect(new RestRequestDescriptor<>("/value/" + i, HttpMethod.GET, null, String.class)).andReturn("value-" + i);
+        }
+
+        for (int i = 0; i < INTERACTIONS_PER_THREAD; i++) {
+            assertThat(restTemplate.getForObject("/value/" + i, String.class), is("value-" + i));
+        }
+
+        server.close();
+    }
+}
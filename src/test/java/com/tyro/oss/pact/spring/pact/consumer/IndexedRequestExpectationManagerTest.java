@@ -0,0 +1,183 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.consumer;
+
+import com.google.gson.GsonBuilder;
+import com.tyro.oss.pact.rest.RestRequestDescriptor;
+import com.tyro.oss.pact.spring.pact.model.Pact;
+import com.tyro.oss.pact.spring.util.GsonStringConverter;
+import com.tyro.oss.pact.spring.util.ObjectStringConverter;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonMap;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IndexedRequestExpectationManagerTest {
+
+    private static final int EXPECTATIONS = 200;
+    private static final int REPETITIONS = 500;
+    private static final int THREADS = 16;
+
+    private final ObjectStringConverter converter = new GsonStringConverter(new GsonBuilder().create());
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldRecordRequestsMadeInAnyOrder() throws Exception {
+        File pactFile = tempDir.resolve("unordered_provider_pacts.json").toFile();
+        RestTemplate restTemplate = new RestTemplate();
+        TuPactRecordingServer server = TuPactRecordingServer.createServer(restTemplate, pactFile, converter).withUnorderedExpectations();
+        server.startWorkflow("unordered");
+
+        for (int i = 0; i < EXPECTATIONS; i++) {
+            server.expect(new RestRequestDescriptor<>("/value/" + i, HttpMethod.GET, null, String.class)).andReturn("value-" + i);
+        }
+
+        List<String> values = IntStream.range(0, EXPECTATIONS).parallel()
+                .map(i -> EXPECTATIONS - 1 - i)
+                .mapToObj(i -> restTemplate.getForObject("/value/" + i, String.class))
+                .collect(toList());
+        server.close();
+        PactFileRegistry.getInstance().flushAll();
+
+        for (int i = 0; i < EXPECTATIONS; i++) {
+            assertThat(values.get(i), is("value-" + (EXPECTATIONS - 1 - i)));
+        }
+        Pact pact = Pact.parse(FileUtils.readFileToString(pactFile, UTF_8), converter);
+        assertThat(pact.getWorkFlows().get("unordered").getInteractions().size(), is(EXPECTATIONS));
+    }
+
+    @Test
+    void shouldHandOutEachRepetitionToExactlyOneOfManyConcurrentCallers() throws Exception {
+        File pactFile = tempDir.resolve("concurrent_calls_provider_pacts.json").toFile();
+        RestTemplate restTemplate = new RestTemplate();
+        TuPactRecordingServer server = TuPactRecordingServer.createServer(restTemplate, pactFile, converter).withUnorderedExpectations();
+        server.startWorkflow("concurrent");
+
+        server.expect(new RestRequestDescriptor<>("/popular", HttpMethod.GET, null, String.class)).times(REPETITIONS).andReturn("popular");
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<CompletableFuture<Boolean>> calls = IntStream.range(0, REPETITIONS + 1)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+                        try {
+                            return "popular".equals(restTemplate.getForObject("/popular", String.class));
+                        } catch (AssertionError e) {
+                            return false;
+                        }
+                    }, executor))
+                    .collect(toList());
+
+            long succeeded = calls.stream().filter(CompletableFuture::join).count();
+            assertThat(succeeded, is((long) REPETITIONS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        AssertionError failures = assertThrows(AssertionError.class, server::close);
+        assertThat(failures.getMessage().contains("Some requests did not execute successfully"), is(true));
+        PactFileRegistry.getInstance().flushAll();
+
+        Pact pact = Pact.parse(FileUtils.readFileToString(pactFile, UTF_8), converter);
+        assertThat(pact.getWorkFlows().get("concurrent").getInteractions().size(), is(REPETITIONS));
+    }
+
+    @Test
+    void shouldTellExpectationsForTheSamePathApartByTheirBodies() {
+        RestTemplate restTemplate = new RestTemplate();
+        TuPactRecordingServer server = TuPactRecordingServer.createServer(restTemplate, tempDir.resolve("bodies_provider_pacts.json").toFile(), converter)
+                .withUnorderedExpectations();
+        server.startWorkflow("bodies");
+
+        server.expect(new RestRequestDescriptor<>("/things", HttpMethod.POST, singletonMap("name", "first"), String.class)).andReturn("1");
+        server.expect(new RestRequestDescriptor<>("/things", HttpMethod.POST, singletonMap("name", "second"), String.class)).andReturn("2");
+
+        assertThat(restTemplate.postForObject("/things", json("{\"name\":\"second\"}"), String.class), is("2"));
+        assertThat(restTemplate.postForObject("/things", json("{\"name\":\"first\"}"), String.class), is("1"));
+        server.close();
+    }
+
+    @Test
+    void shouldMatchExpectationsForPartOfTheRequestUri() {
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.setUriTemplateHandler(new DefaultUriBuilderFactory("http://localhost:8080/api/"));
+        TuPactRecordingServer server = TuPactRecordingServer.createServer(restTemplate, tempDir.resolve("prefix_provider_pacts.json").toFile(), converter)
+                .withUnorderedExpectations();
+        server.startWorkflow("prefix");
+
+        server.expect(new RestRequestDescriptor<>("/things/1?name=a thing", HttpMethod.GET, null, String.class)).andReturn("one");
+
+        assertThat(restTemplate.getForObject("/things/1?name={name}", String.class, "a thing"), is("one"));
+        server.close();
+    }
+
+    @Test
+    void shouldReportTheMismatchOfTheClosestExpectation() {
+        RestTemplate restTemplate = new RestTemplate();
+        TuPactRecordingServer server = TuPactRecordingServer.createServer(restTemplate, tempDir.resolve("mismatch_provider_pacts.json").toFile(), converter)
+                .withUnorderedExpectations();
+        server.startWorkflow("mismatch");
+
+        server.expect(new RestRequestDescriptor<>("/things", HttpMethod.POST, singletonMap("name", "first"), String.class)).andReturn("1");
+
+        AssertionError mismatch = assertThrows(AssertionError.class,
+                () -> restTemplate.postForObject("/things", json("{\"name\":\"other\"}"), String.class));
+        assertThat(mismatch.getMessage().contains("name"), is(true));
+
+        AssertionError unexpected = assertThrows(AssertionError.class, () -> restTemplate.getForObject("/elsewhere", String.class));
+        assertThat(unexpected.getMessage().contains("/elsewhere"), is(true));
+
+        assertThrows(AssertionError.class, server::close);
+    }
+
+    @Test
+    void shouldNormalisePaths() {
+        assertThat(IndexedRequestExpectationManager.normalisePath("things//1/"), is("/things/1"));
+        assertThat(IndexedRequestExpectationManager.normalisePath("/"), is("/"));
+        assertThat(IndexedRequestExpectationManager.normalisePath(null), is("/"));
+    }
+
+    private static HttpEntity<String> json(String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new HttpEntity<>(body, headers);
+    }
+}
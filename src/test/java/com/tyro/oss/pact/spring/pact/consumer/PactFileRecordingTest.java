@@ -0,0 +1,114 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.consumer;
+
+import com.google.gson.GsonBuilder;
+import com.tyro.oss.pact.rest.RestRequestDescriptor;
+import com.tyro.oss.pact.spring.pact.model.Pact;
+import com.tyro.oss.pact.spring.util.GsonStringConverter;
+import com.tyro.oss.pact.spring.util.ObjectStringConverter;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PactFileRecordingTest {
+
+    private final ObjectStringConverter converter = new GsonStringConverter(new GsonBuilder().create());
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldWriteBufferedInteractionsOnlyWhenTheServerIsClosed() throws IOException {
+        File pactFile = tempDir.resolve("buffered_provider_pacts.json").toFile();
+        RestTemplate restTemplate = new RestTemplate();
+        TuPactRecordingServer server = TuPactRecordingServer.createServer(restTemplate, pactFile, converter)
+                .withRecordingMode(RecordingMode.BUFFERED);
+        server.startWorkflow("buffered");
+
+        server.expect(new RestRequestDescriptor<>("/value/1", HttpMethod.GET, null, String.class)).andReturn("one");
+        server.expect(new RestRequestDescriptor<>("/value/2", HttpMethod.GET, null, String.class)).andReturn("two");
+        restTemplate.getForObject("/value/1", String.class);
+        restTemplate.getForObject("/value/2", String.class);
+
+        assertThat(pactFile.exists(), is(false));
+
+        server.close();
+
+        assertThat(readPact(pactFile).getWorkFlows().get("buffered").getInteractions().size(), is(2));
+    }
+
+    @Test
+    void shouldWriteEachInteractionAsItIsRecordedWhenWritingThrough() throws IOException {
+        File pactFile = tempDir.resolve("write_through_provider_pacts.json").toFile();
+        RestTemplate restTemplate = new RestTemplate();
+        TuPactRecordingServer server = TuPactRecordingServer.createServer(restTemplate, pactFile, converter)
+                .withRecordingMode(RecordingMode.WRITE_THROUGH);
+        server.startWorkflow("write through");
+
+        server.expect(new RestRequestDescriptor<>("/value/1", HttpMethod.GET, null, String.class)).andReturn("one");
+        server.expect(new RestRequestDescriptor<>("/value/2", HttpMethod.GET, null, String.class)).andReturn("two");
+
+        restTemplate.getForObject("/value/1", String.class);
+        assertThat(readPact(pactFile).getWorkFlows().get("write through").getInteractions().size(), is(1));
+
+        restTemplate.getForObject("/value/2", String.class);
+        assertThat(readPact(pactFile).getWorkFlows().get("write through").getInteractions().size(), is(2));
+
+        server.close();
+
+        assertThat(tempDir.toFile().list(), is(new String[]{"write_through_provider_pacts.json"}));
+    }
+
+    @Test
+    void shouldKeepTheVerificationFailureWhenThePactFileCannotBeWritten() throws IOException {
+        File pactFile = tempDir.resolve("unwritable_provider_pacts.json").toFile();
+        FileUtils.forceMkdir(pactFile);
+        FileUtils.touch(new File(pactFile, "occupied"));
+        RestTemplate restTemplate = new RestTemplate();
+        TuPactRecordingServer server = TuPactRecordingServer.createServer(restTemplate, pactFile, converter)
+                .withRecordingMode(RecordingMode.BUFFERED);
+        server.startWorkflow("unwritable");
+
+        server.expect(new RestRequestDescriptor<>("/value/1", HttpMethod.GET, null, String.class)).andReturn("one");
+        server.expect(new RestRequestDescriptor<>("/value/2", HttpMethod.GET, null, String.class)).andReturn("two");
+        restTemplate.getForObject("/value/1", String.class);
+
+        AssertionError unmetExpectation = assertThrows(AssertionError.class, server::close);
+        assertThat(unmetExpectation.getSuppressed().length, is(1));
+        assertThat(unmetExpectation.getSuppressed()[0], instanceOf(RuntimeException.class));
+    }
+
+    private Pact readPact(File pactFile) throws IOException {
+        return Pact.parse(FileUtils.readFileToString(pactFile, UTF_8), converter);
+    }
+}
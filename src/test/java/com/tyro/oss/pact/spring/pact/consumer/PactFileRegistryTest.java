@@ -0,0 +1,104 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.consumer;
+
+import com.google.gson.GsonBuilder;
+import com.tyro.oss.pact.rest.RestRequestDescriptor;
+import com.tyro.oss.pact.spring.pact.model.Pact;
+import com.tyro.oss.pact.spring.util.GsonStringConverter;
+import com.tyro.oss.pact.spring.util.ObjectStringConverter;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+class PactFileRegistryTest {
+
+    private final ObjectStringConverter converter = new GsonStringConverter(new GsonBuilder().create());
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldShareOneRecordingBetweenServersWritingToTheSameFile() throws IOException {
+        File pactFile = tempDir.resolve("shared_provider_pacts.json").toFile();
+        File samePactFile = tempDir.resolve("nested").resolve("..").resolve("shared_provider_pacts.json").toFile();
+        FileUtils.forceMkdir(tempDir.resolve("nested").toFile());
+
+        assertThat(PactFileRegistry.getInstance().getRecording(pactFile, converter),
+                sameInstance(PactFileRegistry.getInstance().getRecording(samePactFile, converter)));
+
+        record(pactFile, "first server");
+        record(samePactFile, "second server");
+
+        assertThat(pactFile.exists(), is(false));
+
+        PactFileRegistry.getInstance().getRecording(pactFile, converter).flush();
+
+        Pact pact = readPact(pactFile);
+        assertThat(pact.getWorkFlows().size(), is(2));
+        assertThat(pact.getWorkFlows().get("first server").getInteractions().size(), is(1));
+        assertThat(pact.getWorkFlows().get("second server").getInteractions().size(), is(1));
+    }
+
+    @Test
+    void shouldMergeIntoWorkflowsAlreadyWrittenToThePactFile() throws IOException {
+        File pactFile = tempDir.resolve("existing_provider_pacts.json").toFile();
+        Pact existing = Pact.newPact(converter);
+        existing.getWorkflow("written by another fork", emptyList())
+                .addInteraction(new Pact.Interaction(new Pact.InteractionRequest(HttpMethod.GET, "/existing", null, null), new Pact.InteractionResponse(200, null, "existing", null), converter));
+        Pact.writePact(existing, pactFile, converter);
+
+        record(pactFile, "written by this fork");
+        PactFileRegistry.getInstance().flushAll();
+
+        Pact pact = readPact(pactFile);
+        assertThat(pact.getWorkFlows().size(), is(2));
+        assertThat(pact.getWorkFlows().get("written by another fork").getInteractions().size(), is(1));
+        assertThat(pact.getWorkFlows().get("written by this fork").getInteractions().size(), is(1));
+    }
+
+    private void record(File pactFile, String workflowId) {
+        RestTemplate restTemplate = new RestTemplate();
+        TuPactRecordingServer server = TuPactRecordingServer.createServer(restTemplate, pactFile, converter)
+                .withRecordingMode(RecordingMode.DEFERRED);
+        server.startWorkflow(workflowId);
+
+        server.expect(new RestRequestDescriptor<>("/value", HttpMethod.GET, null, String.class)).andReturn("value");
+        restTemplate.getForObject("/value", String.class);
+
+        server.close();
+    }
+
+    private Pact readPact(File pactFile) throws IOException {
+        return Pact.parse(FileUtils.readFileToString(pactFile, UTF_8), converter);
+    }
+}
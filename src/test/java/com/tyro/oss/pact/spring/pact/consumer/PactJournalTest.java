@@ -0,0 +1,99 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.consumer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.GsonBuilder;
+import com.tyro.oss.pact.spring.pact.model.Pact;
+import com.tyro.oss.pact.spring.util.GsonStringConverter;
+import com.tyro.oss.pact.spring.util.JacksonStringConverter;
+import com.tyro.oss.pact.spring.util.ObjectStringConverter;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+class PactJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldReplayJournalledInteractionsUntilTheyAreCompacted() throws Exception {
+        ObjectStringConverter converter = new GsonStringConverter(new GsonBuilder().create());
+        File journalFile = tempDir.resolve("provider_pacts.json.journal").toFile();
+        PactJournal journal = new PactJournal(journalFile, converter);
+        List<Pact.ProviderState> providerStates = singletonList(new Pact.ProviderState("with books", converter, "Emma"));
+
+        journal.append("bookshelf", providerStates, interaction("/books/1", "{\"title\":\"Emma\"}", converter));
+        journal.append("bookshelf", providerStates, interaction("/books/2", StringUtils.repeat('x', 100 * 1024), converter));
+
+        Pact interrupted = Pact.newPact(converter);
+        journal.replayInto(interrupted);
+        assertThat(interrupted.getWorkFlows().get("bookshelf").getInteractions().size(), is(2));
+        assertThat(journalFile.isFile(), is(true));
+        assertThat(journal.isEmpty(), is(false));
+
+        Pact retried = Pact.newPact(converter);
+        journal.replayInto(retried);
+        Pact.Workflow workflow = retried.getWorkFlows().get("bookshelf");
+        assertThat(workflow.getInteractions().size(), is(2));
+        assertThat(workflow.getInteractions().get(0).getRequest().getUri(), is("/books/1"));
+        assertThat(workflow.getInteractions().get(1).getResponse().getBody().length(), is(100 * 1024));
+        assertThat(workflow.getProviderStates().get(0).getDescription(), is("with books"));
+
+        journal.clear();
+
+        assertThat(journalFile.exists(), is(false));
+        assertThat(journal.isEmpty(), is(true));
+        Pact compacted = Pact.newPact(converter);
+        journal.replayInto(compacted);
+        assertThat(compacted.getWorkFlows().isEmpty(), is(true));
+    }
+
+    @Test
+    void shouldJournalInteractionsRecordedWithTheJacksonConverter() throws Exception {
+        ObjectStringConverter converter = new JacksonStringConverter(new ObjectMapper());
+        PactJournal journal = new PactJournal(tempDir.resolve("jackson_pacts.json.journal").toFile(), converter);
+
+        journal.append("jackson", singletonList(new Pact.ProviderState("a state", converter)), interaction("/values/1", "{}", converter));
+
+        Pact pact = Pact.newPact(converter);
+        journal.replayInto(pact);
+        assertThat(pact.getWorkFlows().get("jackson").getInteractions().get(0).getRequest().getUri(), is("/values/1"));
+        journal.clear();
+    }
+
+    private static Pact.Interaction interaction(String uri, String responseBody, ObjectStringConverter converter) {
+        return new Pact.Interaction(
+                new Pact.InteractionRequest(HttpMethod.GET, uri, new HttpHeaders(), null),
+                new Pact.InteractionResponse(200, new HttpHeaders(), responseBody, null),
+                converter);
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.consumer;
+
+import com.google.gson.GsonBuilder;
+import com.tyro.oss.pact.rest.RestRequestDescriptor;
+import com.tyro.oss.pact.spring.util.GsonStringConverter;
+import com.tyro.oss.pact.spring.util.ObjectStringConverter;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.io.File;
+import java.nio.file.Path;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PactPlaybackTest {
+
+    private final ObjectStringConverter converter = new GsonStringConverter(new GsonBuilder().create());
+
+    @TempDir
+    Path tempDir;
+
+    private File pactFile;
+
+    @BeforeEach
+    void recordPact() {
+        pactFile = tempDir.resolve("playback_provider_pacts.json").toFile();
+        RestTemplate restTemplate = new RestTemplate();
+        TuPactRecordingServer server = TuPactRecordingServer.createServer(restTemplate, pactFile, converter);
+        server.startWorkflow("bookshelf");
+
+        expectBookshelf(server);
+
+        restTemplate.getForObject("/books?author={author}", String.class, "Jane Austen");
+        restTemplate.postForObject("/books", "Emma", String.class);
+        restTemplate.getForObject("/books?author={author}", String.class, "Jane Austen");
+        server.close();
+    }
+
+    private static void expectBookshelf(TuPactRecordingServer server) {
+        server.expect(new RestRequestDescriptor<>("/books?author=Jane Austen", HttpMethod.GET, null, String.class)).andReturn("[]");
+        server.expect(new RestRequestDescriptor<>("/books", HttpMethod.POST, "Emma", String.class)).andReturn(ResponseEntity.status(HttpStatus.CREATED).body("1"));
+        server.expect(new RestRequestDescriptor<>("/books?author=Jane Austen", HttpMethod.GET, null, String.class)).andReturn("[\"Emma\"]");
+    }
+
+    @Test
+    void shouldAnswerExpectedRequestsFromTheRecordedWorkflow() throws Exception {
+        String recorded = FileUtils.readFileToString(pactFile, UTF_8);
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.setUriTemplateHandler(new DefaultUriBuilderFactory("http://localhost/library/"));
+        TuPactRecordingServer server = TuPactRecordingServer.createServer(restTemplate, pactFile, converter).withPlayback();
+        server.startWorkflow("bookshelf");
+
+        expectBookshelf(server);
+        server.withoutRecording().expect(new RestRequestDescriptor<>("/health", HttpMethod.GET, null, String.class)).andReturn("up");
+
+        assertThat(restTemplate.getForObject("/books?author={author}", String.class, "Jane Austen"), is("[]"));
+        ResponseEntity<String> created = restTemplate.postForEntity("/books", "Emma", String.class);
+        assertThat(created.getStatusCode(), is(HttpStatus.CREATED));
+        assertThat(created.getBody(), is("1"));
+        assertThat(restTemplate.getForObject("/books?author={author}", String.class, "Jane Austen"), is("[\"Emma\"]"));
+        assertThat(restTemplate.getForObject("/health", String.class), is("up"));
+        server.close();
+
+        assertThat(FileUtils.readFileToString(pactFile, UTF_8), is(recorded));
+    }
+
+    @Test
+    void shouldTellRecordedRequestsToTheSamePathApartByTheirBodies() {
+        RestTemplate restTemplate = new RestTemplate();
+        TuPactRecordingServer recorder = TuPactRecordingServer.createServer(restTemplate, pactFile, converter);
+        recorder.startWorkflow("two books");
+        expectTwoBooks(recorder);
+        restTemplate.postForObject("/books", "Emma", String.class);
+        restTemplate.postForObject("/books", "Persuasion", String.class);
+        recorder.close();
+
+        TuPactRecordingServer server = TuPactRecordingServer.createServer(restTemplate, pactFile, converter).withPlayback();
+        server.startWorkflow("two books");
+        expectTwoBooks(server);
+
+        assertThat(restTemplate.postForObject("/books", "Persuasion", String.class), is("2"));
+        assertThat(restTemplate.postForObject("/books", "Emma", String.class), is("1"));
+        server.close();
+    }
+
+    private static void expectTwoBooks(TuPactRecordingServer server) {
+        server.expect(new RestRequestDescriptor<>("/books", HttpMethod.POST, "Emma", String.class)).andReturn("1");
+        server.expect(new RestRequestDescriptor<>("/books", HttpMethod.POST, "Persuasion", String.class)).andReturn("2");
+    }
+
+    @Test
+    void shouldRejectARequestBodyThatDiffersFromTheRecording() {
+        RestTemplate restTemplate = new RestTemplate();
+        TuPactRecordingServer server = TuPactRecordingServer.createServer(restTemplate, pactFile, converter).withPlayback();
+        server.startWorkflow("bookshelf");
+        expectBookshelf(server);
+
+        restTemplate.getForObject("/books?author={author}", String.class, "Jane Austen");
+        AssertionError wrongBody = assertThrows(AssertionError.class, () -> restTemplate.postForObject("/books", "Persuasion", String.class));
+
+        assertThat(wrongBody.getMessage(), containsString("No expectation for POST /books"));
+        assertThat(wrongBody.getMessage(), containsString("Persuasion"));
+    }
+
+    @Test
+    void shouldFailWhenRecordedInteractionsAreNotRequested() {
+        RestTemplate restTemplate = new RestTemplate();
+        TuPactRecordingServer expectingServer = TuPactRecordingServer.createServer(restTemplate, pactFile, converter).withPlayback();
+        expectingServer.startWorkflow("bookshelf");
+        expectBookshelf(expectingServer);
+        restTemplate.getForObject("/books?author={author}", String.class, "Jane Austen");
+
+        AssertionError notRequested = assertThrows(AssertionError.class, expectingServer::close);
+        assertThat(notRequested.getMessage(), containsString("expected POST /books"));
+
+        TuPactRecordingServer idleServer = TuPactRecordingServer.createServer(restTemplate, pactFile, converter).withPlayback();
+        idleServer.startWorkflow("bookshelf");
+
+        AssertionError notExpected = assertThrows(AssertionError.class, idleServer::close);
+        assertThat(notExpected.getMessage(), containsString("recorded POST /books"));
+    }
+
+    @Test
+    void shouldFailOnResetWhenARecordedInteractionWasSkipped() {
+        RestTemplate restTemplate = new RestTemplate();
+        TuPactRecordingServer server = TuPactRecordingServer.createServer(restTemplate, pactFile, converter).withPlayback();
+        server.startWorkflow("bookshelf");
+        server.expect(new RestRequestDescriptor<>("/books?author=Jane Austen", HttpMethod.GET, null, String.class)).andReturn("[]");
+        restTemplate.getForObject("/books?author={author}", String.class, "Jane Austen");
+
+        server.reset();
+
+        server.expect(new RestRequestDescriptor<>("/books?author=Jane Austen", HttpMethod.GET, null, String.class)).andReturn("[\"Emma\"]");
+        restTemplate.getForObject("/books?author={author}", String.class, "Jane Austen");
+
+        AssertionError skipped = assertThrows(AssertionError.class, server::reset);
+        assertThat(skipped.getMessage(), containsString("recorded POST /books"));
+    }
+
+    @Test
+    void shouldRejectExpectationsThatDoNotMatchTheRecording() {
+        TuPactRecordingServer server = TuPactRecordingServer.createServer(new RestTemplate(), pactFile, converter).withPlayback();
+        server.startWorkflow("bookshelf");
+
+        AssertionError otherRequestBody = assertThrows(AssertionError.class,
+                () -> server.expect(new RestRequestDescriptor<>("/books", HttpMethod.POST, "Persuasion", String.class)).andReturn(ResponseEntity.status(HttpStatus.CREATED).body("1")));
+        assertThat(otherRequestBody.getMessage(), containsString("Expected POST /books does not match an interaction recorded in workflow 'bookshelf'"));
+
+        assertThrows(AssertionError.class,
+                () -> server.expect(new RestRequestDescriptor<>("/books", HttpMethod.POST, "Emma", String.class)).andReturn(ResponseEntity.status(HttpStatus.OK).body("1")));
+        assertThrows(AssertionError.class,
+                () -> server.expect(new RestRequestDescriptor<>("/books?author=Jane Austen", HttpMethod.GET, null, String.class)).andReturn("[\"Persuasion\"]"));
+        assertThrows(AssertionError.class,
+                () -> server.expect(new RestRequestDescriptor<>("/books?author=Jane Austen", HttpMethod.GET, null, String.class)).times(2).andReturn("[\"Emma\"]"));
+    }
+
+    @Test
+    void shouldRejectRequestsThatWereNotExpected() {
+        RestTemplate restTemplate = new RestTemplate();
+        TuPactRecordingServer server = TuPactRecordingServer.createServer(restTemplate, pactFile, converter).withPlayback();
+        server.startWorkflow("another workflow");
+
+        AssertionError notExpected = assertThrows(AssertionError.class, () -> restTemplate.getForObject("/authors", String.class));
+        assertThat(notExpected.getMessage(), containsString("No expectation for GET /authors is left to answer it from workflow 'another workflow'"));
+        assertThrows(AssertionError.class,
+                () -> server.expect(new RestRequestDescriptor<>("/books?author=Jane Austen", HttpMethod.GET, null, String.class)).andReturn("[]"));
+        server.close();
+    }
+
+    @Test
+    void shouldNotPlayBackAPactThatHasNotBeenRecorded() {
+        TuPactRecordingServer server = TuPactRecordingServer.createServer(new RestTemplate(), tempDir.resolve("missing_provider_pacts.json").toFile(), converter);
+
+        assertThrows(IllegalStateException.class, server::withPlayback);
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.consumer;
+
+import com.tyro.oss.pact.spring.pact.PactBrokerUrlSource;
+import com.tyro.oss.pact.spring.pact.StubBroker;
+import com.tyro.oss.pact.spring.util.CanonicalJson;
+import com.tyro.oss.pact.spring.util.Digests;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PactPublisherTest {
+
+    private static final int PROVIDERS = 6;
+
+    private final StubBroker broker = new StubBroker();
+    private final Map<String, String> published = new ConcurrentHashMap<>();
+
+    @TempDir
+    Path pactDirectory;
+
+    @TempDir
+    Path manifestDirectory;
+
+    PactPublisherTest() throws Exception {
+    }
+
+    @BeforeEach
+    void writePactFiles() throws Exception {
+        System.setProperty(PactBrokerUrlSource.PACT_BROKER_PUBLISH_BACKOFF_PROPERTY, "10");
+        System.setProperty(PactBrokerUrlSource.PACT_BROKER_PUBLISH_MANIFEST_PROPERTY, manifestDirectory.resolve("published.properties").toString());
+        for (int i = 0; i < PROVIDERS; i++) {
+            FileUtils.writeStringToFile(pactFile(i), "{\"workFlows\":{\"" + i + "\":{}}}", UTF_8);
+            broker.on(pactPath(i), exchange -> {
+                Thread.sleep(100);
+                published.put(exchange.getRequestURI().getPath(), IOUtils.toString(exchange.getRequestBody(), UTF_8));
+                StubBroker.send(exchange, 200, "");
+            });
+        }
+    }
+
+    @AfterEach
+    void stopBroker() {
+        System.clearProperty(PactBrokerUrlSource.PACT_BROKER_PUBLISH_BACKOFF_PROPERTY);
+        System.clearProperty(PactBrokerUrlSource.PACT_BROKER_PUBLISH_MANIFEST_PROPERTY);
+        broker.close();
+    }
+
+    @Test
+    void shouldPublishPactFilesConcurrently() throws Exception {
+        PactPublishReport report = PactPublisher.publishPactFiles("example-consumer", "1.0.0-SNAPSHOT", pactDirectory.toString(), broker.getUrl(), false);
+
+        assertThat(report.isSuccess(), is(true));
+        assertThat(report.getResults().size(), is(PROVIDERS));
+        assertThat(published.get(pactPath(3)), is("{\"workFlows\":{\"3\":{}}}"));
+        assertThat(broker.getMaxRequestsInFlight(), greaterThan(1));
+    }
+
+    @Test
+    void shouldRetryTransientFailures() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        broker.on(pactPath(0), exchange -> StubBroker.send(exchange, attempts.incrementAndGet() < 3 ? 503 : 200, ""));
+
+        PactPublishReport report = PactPublisher.publishPactFiles("example-consumer", "1.0.0", pactDirectory.toString(), broker.getUrl(), false);
+
+        assertThat(report.isSuccess(), is(true));
+        assertThat(attempts.get(), is(3));
+    }
+
+    @Test
+    void shouldPublishEveryFileBeforeReportingFailures() {
+        AtomicInteger attempts = new AtomicInteger();
+        broker.on(pactPath(0), exchange -> {
+            attempts.incrementAndGet();
+            StubBroker.send(exchange, 400, "");
+        });
+
+        PactPublishException exception = assertThrows(PactPublishException.class,
+                () -> PactPublisher.publishPactFiles("example-consumer", "1.0.0", pactDirectory.toString(), broker.getUrl()));
+
+        assertThat(attempts.get(), is(1));
+        assertThat(exception.getReport().getFailures().size(), is(1));
+        assertThat(published.size(), is(PROVIDERS - 1));
+    }
+
+    @Test
+    void shouldNotRepublishUnchangedPacts() throws Exception {
+        PactPublisher.publishPactFiles("example-consumer", "1.0.0", pactDirectory.toString(), broker.getUrl());
+        FileUtils.writeStringToFile(pactFile(1), "{ \"workFlows\" : {\n  \"1\" : { } } }", UTF_8);
+
+        PactPublishReport report = PactPublisher.publishPactFiles("example-consumer", "1.0.0", pactDirectory.toString(), broker.getUrl(), false);
+
+        assertThat(broker.getRequests().size(), is(PROVIDERS));
+        assertThat(report.getSkipped().size(), is(PROVIDERS));
+    }
+
+    @Test
+    void shouldRepublishChangedPacts() throws Exception {
+        PactPublisher.publishPactFiles("example-consumer", "1.0.0", pactDirectory.toString(), broker.getUrl());
+        FileUtils.writeStringToFile(pactFile(2), "{\"workFlows\":{\"2\":{\"id\":\"changed\"}}}", UTF_8);
+
+        PactPublishReport report = PactPublisher.publishPactFiles("example-consumer", "1.0.0", pactDirectory.toString(), broker.getUrl(), false);
+
+        assertThat(broker.getRequests().size(), is(PROVIDERS + 1));
+        assertThat(report.getSkipped().size(), is(PROVIDERS - 1));
+    }
+
+    @Test
+    void shouldRepublishUnchangedPactsWhenForced() throws Exception {
+        PactPublisher.publishPactFiles("example-consumer", "1.0.0", pactDirectory.toString(), broker.getUrl());
+
+        PactPublisher.publishPactFiles("example-consumer", "1.0.0", pactDirectory.toString(), broker.getUrl(), true);
+
+        assertThat(broker.getRequests().size(), is(PROVIDERS * 2));
+    }
+
+    @Test
+    void shouldSkipPactsRecordedByTheirCanonicalDigestAlone() throws Exception {
+        Properties manifest = new Properties();
+        for (int i = 0; i < PROVIDERS; i++) {
+            String canonical = CanonicalJson.canonicalise(FileUtils.readFileToString(pactFile(i), UTF_8));
+            manifest.setProperty(broker.getUrl() + pactPath(i), Digests.sha256Hex(canonical));
+        }
+        try (OutputStream out = Files.newOutputStream(manifestDirectory.resolve("published.properties"))) {
+            manifest.store(out, null);
+        }
+
+        PactPublishReport report = PactPublisher.publishPactFiles("example-consumer", "1.0.0", pactDirectory.toString(), broker.getUrl(), false);
+
+        assertThat(broker.getRequests().size(), is(0));
+        assertThat(report.getSkipped().size(), is(PROVIDERS));
+    }
+
+    @Test
+    void shouldMergeTheDigestsOfPublishersSavingTheSameManifest() throws Exception {
+        File manifestFile = manifestDirectory.resolve("published.properties").toFile();
+        PublishedPactManifest first = PublishedPactManifest.load(manifestFile);
+        PublishedPactManifest second = PublishedPactManifest.load(manifestFile);
+
+        first.recordPublished(broker.getUrl(), "provider-0", "example-consumer", "1.0.0", "canonical-0", "raw-0");
+        second.recordPublished(broker.getUrl(), "provider-1", "example-consumer", "1.0.0", "canonical-1", "raw-1");
+        first.save();
+        second.save();
+
+        PublishedPactManifest merged = PublishedPactManifest.load(manifestFile);
+        assertThat(merged.isUnchanged(broker.getUrl(), "provider-0", "example-consumer", "1.0.0", "canonical-0"), is(true));
+        assertThat(merged.isUnchangedFile(broker.getUrl(), "provider-0", "example-consumer", "1.0.0", "raw-0"), is(true));
+        assertThat(merged.isUnchanged(broker.getUrl(), "provider-1", "example-consumer", "1.0.0", "canonical-1"), is(true));
+        try (Stream<Path> files = Files.list(manifestDirectory)) {
+            assertThat(files.filter(file -> !file.toString().endsWith("_pacts.json")).count(), is(1L));
+        }
+    }
+
+    private File pactFile(int provider) {
+        return new File(pactDirectory.toFile(), "provider_" + provider + "_pacts.json");
+    }
+
+    private static String pactPath(int provider) {
+        return "/pacts/provider/provider-" + provider + "/consumer/example-consumer/version/1.0.0";
+    }
+}
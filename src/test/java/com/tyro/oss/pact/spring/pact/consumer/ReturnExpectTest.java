@@ -0,0 +1,111 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.consumer;
+
+import com.google.gson.GsonBuilder;
+import com.tyro.oss.pact.rest.RestRequestDescriptor;
+import com.tyro.oss.pact.spring.pact.model.Pact;
+import com.tyro.oss.pact.spring.util.GsonStringConverter;
+import com.tyro.oss.pact.spring.util.ObjectStringConverter;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReturnExpectTest {
+
+    private static final int TIMES = 3;
+
+    private final ObjectStringConverter converter = new GsonStringConverter(new GsonBuilder().create());
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldMatchAndRecordEveryRepetitionOfAnExpectation() throws Exception {
+        File pactFile = tempDir.resolve("repeated_provider_pacts.json").toFile();
+        RestTemplate restTemplate = new RestTemplate();
+        TuPactRecordingServer server = TuPactRecordingServer.createServer(restTemplate, pactFile, converter);
+        server.startWorkflow("repeated");
+
+        server.expect(new RestRequestDescriptor<>("/things?name=a thing", HttpMethod.POST, thing(), String.class))
+                .times(TIMES)
+                .andReturn("created");
+
+        for (int i = 0; i < TIMES; i++) {
+            assertThat(restTemplate.postForObject("/things?name=a thing", json("{\"colour\":\"red\",\"id\":1}"), String.class), is("created"));
+        }
+        server.close();
+        PactFileRegistry.getInstance().flushAll();
+
+        Pact pact = Pact.parse(FileUtils.readFileToString(pactFile, UTF_8), converter);
+        List<Pact.Interaction> interactions = pact.getWorkFlows().get("repeated").getInteractions();
+        assertThat(interactions.size(), is(TIMES));
+        for (Pact.Interaction interaction : interactions) {
+            assertThat(interaction.getRequest().getUri(), is("/things?name=a%20thing"));
+            assertThat(interaction.getRequest().getBody(), is("{\"id\":1,\"colour\":\"red\"}"));
+            assertThat(interaction.getResponse().getBody(), is("created"));
+        }
+    }
+
+    @Test
+    void shouldRejectARepetitionWithADifferentBody() {
+        RestTemplate restTemplate = new RestTemplate();
+        TuPactRecordingServer server = TuPactRecordingServer.createServer(restTemplate, tempDir.resolve("mismatch_provider_pacts.json").toFile(), converter);
+        server.startWorkflow("mismatch");
+
+        server.expect(new RestRequestDescriptor<>("/things", HttpMethod.POST, thing(), String.class))
+                .times(TIMES)
+                .andReturn("created");
+
+        restTemplate.postForObject("/things", json("{\"id\":1,\"colour\":\"red\"}"), String.class);
+        AssertionError error = assertThrows(AssertionError.class,
+                () -> restTemplate.postForObject("/things", json("{\"id\":1,\"colour\":\"blue\"}"), String.class));
+        assertThat(error.getMessage().contains("colour"), is(true));
+    }
+
+    private static Map<String, Object> thing() {
+        Map<String, Object> thing = new LinkedHashMap<>();
+        thing.put("id", 1);
+        thing.put("colour", "red");
+        return thing;
+    }
+
+    private static HttpEntity<String> json(String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new HttpEntity<>(body, headers);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.model;
+
+import com.google.gson.GsonBuilder;
+import com.tyro.oss.pact.spring.util.GsonStringConverter;
+import com.tyro.oss.pact.spring.util.ObjectStringConverter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import static java.util.Collections.singletonList;
+
+public final class PactFixtures {
+
+    public static final ObjectStringConverter JSON_CONVERTER = new GsonStringConverter(new GsonBuilder().create());
+
+    private PactFixtures() {
+    }
+
+    public static Pact pactWithWorkflows(String... workflowIds) {
+        Pact pact = Pact.newPact(JSON_CONVERTER);
+        for (String workflowId : workflowIds) {
+            pact.getWorkFlows().put(workflowId, workflow(workflowId, "state " + workflowId, interaction("/" + workflowId, "{}")));
+        }
+        return pact;
+    }
+
+    public static Pact.Workflow workflow(String id, String providerState, Pact.Interaction interaction) {
+        Pact.Workflow workflow = new Pact.Workflow(id, singletonList(new Pact.ProviderState(providerState, JSON_CONVERTER)), JSON_CONVERTER);
+        workflow.addInteraction(interaction);
+        return workflow;
+    }
+
+    public static Pact.Interaction interaction(String uri, String responseBody) {
+        return new Pact.Interaction(
+                new Pact.InteractionRequest(HttpMethod.GET, uri, new HttpHeaders(), null),
+                new Pact.InteractionResponse(200, new HttpHeaders(), responseBody, null),
+                JSON_CONVERTER);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.tyro.oss.pact.spring.pact.model.PactFixtures.JSON_CONVERTER;
+import static com.tyro.oss.pact.spring.pact.model.PactFixtures.interaction;
+import static com.tyro.oss.pact.spring.pact.model.PactFixtures.workflow;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PactModelEqualityTest {
+
+    @Test
+    void shouldEqualWorkflowParsedFromItsOwnSerialisedForm() {
+        Pact pact = Pact.newPact(JSON_CONVERTER);
+        Pact.Workflow workflow = pact.getWorkflow("workflow", singletonList(new Pact.ProviderState("state", JSON_CONVERTER, "argument")));
+        workflow.addInteraction(interaction("/books", "{\"title\":\"Dune\"}"));
+
+        Pact parsed = Pact.parse(JSON_CONVERTER.fromObject(pact), JSON_CONVERTER);
+        Pact.Workflow parsedWorkflow = parsed.getWorkFlows().get("workflow");
+
+        assertThat(parsedWorkflow, is(workflow));
+        assertThat(parsedWorkflow.hashCode(), is(workflow.hashCode()));
+    }
+
+    @Test
+    void shouldIgnoreIdsWhenComparingWorkflows() {
+        Pact.Workflow first = workflow("first", "state", interaction("/books", "{}"));
+        Pact.Workflow second = workflow("second", "state", interaction("/books", "{}"));
+
+        assertThat(first, is(second));
+        assertThat(first.hashCode(), is(second.hashCode()));
+    }
+
+    @Test
+    void shouldDistinguishProviderStateArguments() {
+        Pact.ProviderState first = new Pact.ProviderState("state", JSON_CONVERTER, "first");
+        Pact.ProviderState second = new Pact.ProviderState("state", JSON_CONVERTER, "second");
+
+        assertThat(first, not(second));
+        assertThat(first, is(new Pact.ProviderState("state", JSON_CONVERTER, "first")));
+    }
+
+    @Test
+    void shouldRecomputeWorkflowHashCodeWhenAnInteractionIsAdded() {
+        Pact.Workflow first = workflow("first", "state", interaction("/books", "{}"));
+        Pact.Workflow second = workflow("second", "state", interaction("/books", "{}"));
+        int originalHashCode = first.hashCode();
+
+        first.addInteraction(interaction("/authors", "{}"));
+
+        assertThat(first, not(second));
+        assertThat(first.hashCode(), not(originalHashCode));
+
+        second.addInteraction(interaction("/authors", "{}"));
+
+        assertThat(first, is(second));
+    }
+
+    @Test
+    void shouldShareTheInteractionsSnapshotUntilAnInteractionIsAdded() {
+        Pact.Workflow workflow = workflow("first", "state", interaction("/books", "{}"));
+        List<Pact.Interaction> snapshot = workflow.getInteractions();
+
+        assertThat(workflow.getInteractions(), sameInstance(snapshot));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(interaction("/authors", "{}")));
+
+        workflow.addInteraction(interaction("/authors", "{}"));
+
+        assertThat(snapshot.size(), is(1));
+        assertThat(workflow.getInteractions().size(), is(2));
+        assertThat(workflow.getInteractions(), sameInstance(workflow.getInteractions()));
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.reflect.TypeToken;
+import com.tyro.oss.pact.spring.util.JacksonStringConverter;
+import com.tyro.oss.pact.spring.util.ObjectStringConverter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.StringReader;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static com.tyro.oss.pact.spring.pact.model.PactFixtures.JSON_CONVERTER;
+import static com.tyro.oss.pact.spring.pact.model.PactFixtures.interaction;
+import static com.tyro.oss.pact.spring.pact.model.PactFixtures.pactWithWorkflows;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+class PactStreamingParseTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldParseTheSameWorkflowsFromAStreamAsFromAString() {
+        Pact pact = Pact.newPact(JSON_CONVERTER);
+        Pact.Workflow workflow = pact.getWorkflow("workflow", singletonList(new Pact.ProviderState("state", JSON_CONVERTER, "été")));
+        workflow.addInteraction(interaction("/books", "{\"title\":\"L'Étranger\"}"));
+        String json = JSON_CONVERTER.fromObject(pact);
+
+        Pact fromString = Pact.parse(json, JSON_CONVERTER);
+        Pact fromReader = Pact.parse(new StringReader(json), JSON_CONVERTER);
+        Pact fromStream = Pact.parse(new ByteArrayInputStream(json.getBytes(UTF_8)), JSON_CONVERTER);
+
+        assertThat(fromReader.getWorkFlows(), is(fromString.getWorkFlows()));
+        assertThat(fromStream.getWorkFlows(), is(fromString.getWorkFlows()));
+        assertThat(fromStream.getWorkFlows().get("workflow").getInteractions().get(0).toString(),
+                is(fromString.getWorkFlows().get("workflow").getInteractions().get(0).toString()));
+    }
+
+    @Test
+    void shouldOnlyDeserialiseInteractionsOfLazilyParsedWorkflowsWhenTheyAreRead() {
+        String json = JSON_CONVERTER.fromObject(pactWithWorkflows("first", "second"));
+
+        Pact pact = Pact.parseLazily(new StringReader(json), JSON_CONVERTER);
+        Pact.Workflow first = pact.getWorkFlows().get("first");
+        Pact.Workflow second = pact.getWorkFlows().get("second");
+
+        assertThat(first.getProviderStates().get(0).getDescription(), is("state first"));
+        assertThat(first.unparsedInteractions(), is(notNullValue()));
+        assertThat(first.getInteractions(), is(Pact.parse(json, JSON_CONVERTER).getWorkFlows().get("first").getInteractions()));
+        assertThat(first.unparsedInteractions(), is(nullValue()));
+        assertThat(second.unparsedInteractions(), is(notNullValue()));
+    }
+
+    @Test
+    void shouldWriteTheInteractionsOfLazilyParsedWorkflows() throws Exception {
+        Pact original = pactWithWorkflows("first", "second");
+        File pactFile = directory.resolve("pact.json").toFile();
+
+        Pact.writePact(Pact.parseLazily(new StringReader(JSON_CONVERTER.fromObject(original)), JSON_CONVERTER), pactFile, JSON_CONVERTER);
+
+        assertThat(Pact.parse(new String(Files.readAllBytes(pactFile.toPath()), UTF_8), JSON_CONVERTER).getWorkFlows(), is(original.getWorkFlows()));
+    }
+
+    @Test
+    void shouldReadTheSameDocumentFromAReaderWithEitherConverter() {
+        String json = "{\"books\":[\"Dune\",\"Emma\"]}";
+        Type type = new TypeToken<Map<String, List<String>>>() {}.getType();
+
+        for (ObjectStringConverter converter : new ObjectStringConverter[]{JSON_CONVERTER, new JacksonStringConverter(new ObjectMapper())}) {
+            Map<String, List<String>> parsed = converter.fromReader(new StringReader(json), type);
+
+            assertThat(parsed.get("books"), is(converter.<Map<String, List<String>>>fromString(json, type).get("books")));
+        }
+    }
+
+    @Test
+    void shouldLeaveTheReaderOpenWithEitherConverter() {
+        for (ObjectStringConverter converter : new ObjectStringConverter[]{JSON_CONVERTER, new JacksonStringConverter(new ObjectMapper())}) {
+            CloseTrackingReader reader = new CloseTrackingReader("{\"books\":[\"Dune\",\"Emma\"]}");
+
+            converter.fromReader(reader, Map.class);
+
+            assertThat(reader.closed, is(false));
+        }
+    }
+
+    @Test
+    void shouldLeaveTheReaderOpenWhenParsingAPact() {
+        String json = JSON_CONVERTER.fromObject(pactWithWorkflows("first"));
+        CloseTrackingReader reader = new CloseTrackingReader(json);
+        CloseTrackingReader lazyReader = new CloseTrackingReader(json);
+
+        Pact.parse(reader, JSON_CONVERTER);
+        Pact.parseLazily(lazyReader, JSON_CONVERTER);
+
+        assertThat(reader.closed, is(false));
+        assertThat(lazyReader.closed, is(false));
+    }
+
+    private static class CloseTrackingReader extends StringReader {
+
+        private boolean closed;
+
+        CloseTrackingReader(String json) {
+            super(json);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            super.close();
+        }
+    }
+}
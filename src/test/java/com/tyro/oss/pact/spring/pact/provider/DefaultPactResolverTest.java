@@ -0,0 +1,158 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.provider;
+
+import com.google.gson.GsonBuilder;
+import com.tyro.oss.pact.spring.pact.PactBrokerUrlSource;
+import com.tyro.oss.pact.spring.pact.StubBroker;
+import com.tyro.oss.pact.spring.pact.model.Pact;
+import com.tyro.oss.pact.spring.pact.provider.annotations.PactDefinition;
+import com.tyro.oss.pact.spring.util.GsonStringConverter;
+import com.tyro.oss.pact.spring.util.ObjectStringConverter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.greaterThan;
+
+class DefaultPactResolverTest {
+
+    private static final String PACT = "{\"workFlows\":{}}";
+    private static final String PACT_WITH_WORKFLOW = "{\"workFlows\":{\"overridden\":{\"id\":\"overridden\",\"providerStates\":[],\"interactions\":[]}}}";
+    private static final ObjectStringConverter CONVERTER = new GsonStringConverter(new GsonBuilder().create());
+
+    private final StubBroker slowBroker = new StubBroker();
+    private final StubBroker fastBroker = new StubBroker();
+
+    DefaultPactResolverTest() throws Exception {
+    }
+
+    @BeforeEach
+    void configureBrokers() {
+        System.setProperty(PactBrokerUrlSource.PACT_BROKER_DOWNLOAD_URLS_PROPERTY, slowBroker.getUrl() + "," + fastBroker.getUrl());
+        System.setProperty(PactBrokerUrlSource.PACT_BROKER_CACHE_ENABLED_PROPERTY, "false");
+    }
+
+    @AfterEach
+    void stopBrokers() {
+        System.clearProperty(PactBrokerUrlSource.PACT_BROKER_DOWNLOAD_URLS_PROPERTY);
+        System.clearProperty(PactBrokerUrlSource.PACT_BROKER_DOWNLOAD_RACE_PROPERTY);
+        System.clearProperty(PactBrokerUrlSource.PACT_BROKER_CACHE_ENABLED_PROPERTY);
+        slowBroker.close();
+        fastBroker.close();
+    }
+
+    @Test
+    void shouldDownloadVersionsConcurrentlyAndKeepTheirOrder() throws Exception {
+        slowBroker.respond("/pacts/provider/example-provider/consumer/example-consumer/version/1.0.1", PACT, 400)
+                .respond("/pacts/provider/example-provider/consumer/example-consumer/version/1.0.2", PACT, 200)
+                .respond("/pacts/provider/example-provider/consumer/example-consumer/version/1.0.3", PACT, 0);
+
+        List<Pact> pacts = resolvePacts();
+
+        assertThat(pacts.stream().map(Pact::getDisplayVersion).collect(toList()), contains("1.0.1", "1.0.2", "1.0.3"));
+        assertThat(slowBroker.getMaxRequestsInFlight(), greaterThan(1));
+    }
+
+    @Test
+    void shouldTakeTheFirstBrokerToRespondWhenRacing() throws Exception {
+        System.setProperty(PactBrokerUrlSource.PACT_BROKER_DOWNLOAD_RACE_PROPERTY, "true");
+        for (String version : new String[]{"1.0.1", "1.0.2", "1.0.3"}) {
+            slowBroker.respond("/pacts/provider/example-provider/consumer/example-consumer/version/" + version, PACT, 3000);
+            fastBroker.respond("/pacts/provider/example-provider/consumer/example-consumer/version/" + version, PACT, 0);
+        }
+
+        long start = System.currentTimeMillis();
+        List<Pact> pacts = resolvePacts();
+
+        assertThat(pacts.size(), is(3));
+        assertThat(System.currentTimeMillis() - start < 3000, is(true));
+    }
+
+    @Test
+    void shouldFallBackToTheNextBrokerWhenNotRacing() throws Exception {
+        fastBroker.respond("/pacts/provider/example-provider/consumer/example-consumer/version/1.0.1", PACT, 0)
+                .respond("/pacts/provider/example-provider/consumer/example-consumer/version/1.0.2", PACT, 0)
+                .respond("/pacts/provider/example-provider/consumer/example-consumer/version/1.0.3", PACT, 0);
+
+        List<Pact> pacts = resolvePacts();
+
+        assertThat(pacts.size(), is(3));
+        assertThat(slowBroker.getRequests().size(), is(3));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void shouldStillCallAnOverriddenStringDownloadHook() throws Exception {
+        List<String> downloaded = Collections.synchronizedList(new ArrayList<>());
+        DefaultPactResolver resolver = new DefaultPactResolver() {
+            @Override
+            protected ResponseEntity<String> downloadPact(PactDefinition pactDefinition, String version) {
+                downloaded.add(version);
+                return ResponseEntity.ok(PACT_WITH_WORKFLOW);
+            }
+        };
+
+        List<Pact> pacts = resolver.resolvePacts(PinnedVersions.class.getAnnotation(PactDefinition.class), CONVERTER);
+
+        assertThat(downloaded, containsInAnyOrder("1.0.1", "1.0.2", "1.0.3"));
+        assertThat(pacts.get(0).getWorkFlows().keySet(), contains("overridden"));
+        assertThat(slowBroker.getRequests().size() + fastBroker.getRequests().size(), is(0));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void shouldStillCallAnOverriddenLocalPactFileHook() throws Exception {
+        DefaultPactResolver resolver = new DefaultPactResolver() {
+            @Override
+            protected String loadPactFile(String localPactFilePath) {
+                assertThat(localPactFilePath, is("does/not/exist.json"));
+                return PACT_WITH_WORKFLOW;
+            }
+        };
+
+        List<Pact> pacts = resolver.resolvePacts(LocalPact.class.getAnnotation(PactDefinition.class), CONVERTER);
+
+        assertThat(pacts.get(0).getWorkFlows().keySet(), contains("overridden"));
+    }
+
+    private List<Pact> resolvePacts() throws Exception {
+        PactDefinition pactDefinition = PinnedVersions.class.getAnnotation(PactDefinition.class);
+        return new DefaultPactResolver().resolvePacts(pactDefinition, CONVERTER);
+    }
+
+    @PactDefinition(provider = "example-provider", consumer = "example-consumer", pactVersions = {"1.0.1", "1.0.2", "1.0.3"})
+    private static class PinnedVersions {
+    }
+
+    @PactDefinition(provider = "example-provider", consumer = "example-consumer", localPactFilePath = "does/not/exist.json")
+    private static class LocalPact {
+    }
+}
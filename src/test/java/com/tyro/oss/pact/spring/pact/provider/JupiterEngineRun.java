@@ -0,0 +1,124 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.provider;
+
+import org.junit.jupiter.engine.JupiterTestEngine;
+import org.junit.platform.engine.ConfigurationParameters;
+import org.junit.platform.engine.DiscoveryFilter;
+import org.junit.platform.engine.DiscoverySelector;
+import org.junit.platform.engine.EngineDiscoveryRequest;
+import org.junit.platform.engine.EngineExecutionListener;
+import org.junit.platform.engine.ExecutionRequest;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.engine.reporting.ReportEntry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+/**
+ * Runs a test class through the Jupiter engine and collects the outcome of each test, so that tests can check how pact workflows
+ * are reported.
+ */
+final class JupiterEngineRun {
+
+    final List<String> succeeded = Collections.synchronizedList(new ArrayList<>());
+    final List<String> skipped = Collections.synchronizedList(new ArrayList<>());
+    final List<String> failures = Collections.synchronizedList(new ArrayList<>());
+
+    private JupiterEngineRun() {
+    }
+
+    static JupiterEngineRun execute(Class<?> testClass, Map<String, String> configuration) {
+        ConfigurationParameters parameters = new ConfigurationParameters() {
+            @Override
+            public Optional<String> get(String key) {
+                return Optional.ofNullable(configuration.get(key));
+            }
+
+            @Override
+            public Optional<Boolean> getBoolean(String key) {
+                return get(key).map(Boolean::valueOf);
+            }
+
+            @Override
+            public int size() {
+                return configuration.size();
+            }
+        };
+        EngineDiscoveryRequest discoveryRequest = new EngineDiscoveryRequest() {
+            @Override
+            public <T extends DiscoverySelector> List<T> getSelectorsByType(Class<T> selectorType) {
+                DiscoverySelector selector = selectClass(testClass);
+                return selectorType.isInstance(selector) ? singletonList(selectorType.cast(selector)) : emptyList();
+            }
+
+            @Override
+            public <T extends DiscoveryFilter<?>> List<T> getFiltersByType(Class<T> filterType) {
+                return emptyList();
+            }
+
+            @Override
+            public ConfigurationParameters getConfigurationParameters() {
+                return parameters;
+            }
+        };
+
+        JupiterEngineRun run = new JupiterEngineRun();
+        JupiterTestEngine engine = new JupiterTestEngine();
+        TestDescriptor root = engine.discover(discoveryRequest, UniqueId.forEngine(engine.getId()));
+        engine.execute(new ExecutionRequest(root, new EngineExecutionListener() {
+            @Override
+            public void dynamicTestRegistered(TestDescriptor testDescriptor) {
+            }
+
+            @Override
+            public void executionSkipped(TestDescriptor testDescriptor, String reason) {
+                run.skipped.add(testDescriptor.getDisplayName() + ": " + reason);
+            }
+
+            @Override
+            public void executionStarted(TestDescriptor testDescriptor) {
+            }
+
+            @Override
+            public void reportingEntryPublished(TestDescriptor testDescriptor, ReportEntry entry) {
+            }
+
+            @Override
+            public void executionFinished(TestDescriptor testDescriptor, TestExecutionResult result) {
+                if (result.getStatus() != TestExecutionResult.Status.SUCCESSFUL) {
+                    run.failures.add(testDescriptor.getDisplayName() + ": " + result.getThrowable().map(Throwable::toString).orElse(""));
+                } else if (testDescriptor.isTest()) {
+                    run.succeeded.add(testDescriptor.getDisplayName());
+                }
+            }
+        }, parameters));
+        return run;
+    }
+}
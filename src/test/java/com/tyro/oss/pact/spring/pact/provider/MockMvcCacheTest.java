@@ -0,0 +1,160 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.provider;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.DefaultMockMvcBuilder;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+class MockMvcCacheTest {
+
+    private static final AtomicInteger cachedBuilds = new AtomicInteger();
+    private static final AtomicInteger uncachedBuilds = new AtomicInteger();
+
+    private AnnotationConfigWebApplicationContext context;
+
+    @BeforeEach
+    void startContext() {
+        cachedBuilds.set(0);
+        uncachedBuilds.set(0);
+        context = startWebApplicationContext();
+    }
+
+    @AfterEach
+    void closeContext() {
+        context.close();
+    }
+
+    @Test
+    void shouldReuseTheMockMvcForEveryWorkflowOfTheSameClassAndContext() {
+        MockMvc first = runWorkflow(new CachedPactTest(), context);
+        MockMvc second = runWorkflow(new CachedPactTest(), context);
+
+        assertThat(second, sameInstance(first));
+        assertThat(cachedBuilds.get(), is(1));
+    }
+
+    @Test
+    void shouldNeverLendTheSameMockMvcToWorkflowsRunningAtTheSameTime() {
+        CachedPactTest first = startWorkflow(new CachedPactTest(), context);
+        CachedPactTest second = startWorkflow(new CachedPactTest(), context);
+
+        assertThat(second.mockMvc, not(sameInstance(first.mockMvc)));
+        assertThat(cachedBuilds.get(), is(2));
+
+        first.releaseMockMvc();
+        CachedPactTest third = startWorkflow(new CachedPactTest(), context);
+
+        assertThat(third.mockMvc, sameInstance(first.mockMvc));
+        assertThat(cachedBuilds.get(), is(2));
+    }
+
+    @Test
+    void shouldBuildANewMockMvcForEachContext() {
+        AnnotationConfigWebApplicationContext otherContext = startWebApplicationContext();
+        try {
+            MockMvc first = runWorkflow(new CachedPactTest(), context);
+            MockMvc second = runWorkflow(new CachedPactTest(), otherContext);
+
+            assertThat(second, not(sameInstance(first)));
+            assertThat(cachedBuilds.get(), is(2));
+        } finally {
+            otherContext.close();
+        }
+    }
+
+    @Test
+    void shouldRebuildTheMockMvcForEveryWorkflowWhenCachingIsDisabled() {
+        MockMvc first = runWorkflow(new UncachedPactTest(), context);
+        MockMvc second = runWorkflow(new UncachedPactTest(), context);
+
+        assertThat(second, not(sameInstance(first)));
+        assertThat(uncachedBuilds.get(), is(2));
+    }
+
+    private static MockMvc runWorkflow(PactTestBase test, AnnotationConfigWebApplicationContext context) {
+        MockMvc mockMvc = startWorkflow(test, context).mockMvc;
+        test.releaseMockMvc();
+        return mockMvc;
+    }
+
+    private static <T extends PactTestBase> T startWorkflow(T test, AnnotationConfigWebApplicationContext context) {
+        test.wac = context;
+        test.setup();
+        return test;
+    }
+
+    private static AnnotationConfigWebApplicationContext startWebApplicationContext() {
+        AnnotationConfigWebApplicationContext context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        context.register(WebConfig.class);
+        context.refresh();
+        return context;
+    }
+
+    @Configuration
+    @EnableWebMvc
+    static class WebConfig {
+    }
+
+    static class CachedPactTest extends PactTestBase {
+
+        @Override
+        protected void initialiseMockMvcBuilder(DefaultMockMvcBuilder mockMvcBuilder) {
+            cachedBuilds.incrementAndGet();
+        }
+
+        @Override
+        protected String getServletContextPathWithoutTrailingSlash() {
+            return "";
+        }
+    }
+
+    static class UncachedPactTest extends PactTestBase {
+
+        @Override
+        protected boolean cacheMockMvc() {
+            return false;
+        }
+
+        @Override
+        protected void initialiseMockMvcBuilder(DefaultMockMvcBuilder mockMvcBuilder) {
+            uncachedBuilds.incrementAndGet();
+        }
+
+        @Override
+        protected String getServletContextPathWithoutTrailingSlash() {
+            return "";
+        }
+    }
+}
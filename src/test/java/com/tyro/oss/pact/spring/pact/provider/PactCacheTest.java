@@ -0,0 +1,137 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.provider;
+
+import com.google.gson.GsonBuilder;
+import com.tyro.oss.pact.spring.pact.PactBrokerUrlSource;
+import com.tyro.oss.pact.spring.pact.StubBroker;
+import com.tyro.oss.pact.spring.pact.model.Pact;
+import com.tyro.oss.pact.spring.pact.provider.annotations.PactDefinition;
+import com.tyro.oss.pact.spring.util.Digests;
+import com.tyro.oss.pact.spring.util.GsonStringConverter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PactCacheTest {
+
+    private static final String PACT_PATH = "/pacts/provider/example-provider/consumer/example-consumer/";
+    private static final String PACT = "{\"workFlows\":{}}";
+
+    private final StubBroker broker = new StubBroker();
+
+    @TempDir
+    Path cacheDirectory;
+
+    PactCacheTest() throws Exception {
+    }
+
+    @BeforeEach
+    void configureBroker() {
+        System.setProperty(PactBrokerUrlSource.PACT_BROKER_DOWNLOAD_URLS_PROPERTY, broker.getUrl());
+        System.setProperty(PactBrokerUrlSource.PACT_BROKER_CACHE_DIR_PROPERTY, cacheDirectory.toString());
+    }
+
+    @AfterEach
+    void stopBroker() {
+        System.clearProperty(PactBrokerUrlSource.PACT_BROKER_DOWNLOAD_URLS_PROPERTY);
+        System.clearProperty(PactBrokerUrlSource.PACT_BROKER_CACHE_DIR_PROPERTY);
+        System.clearProperty(PactBrokerUrlSource.PACT_BROKER_OFFLINE_PROPERTY);
+        broker.close();
+    }
+
+    @Test
+    void shouldServePinnedVersionsFromDiskWithoutAskingTheBroker() throws Exception {
+        broker.on(PACT_PATH + "version/1.0.1", exchange -> {
+            exchange.getResponseHeaders().add("X-Pact-Consumer-Version", "1.0.1");
+            StubBroker.send(exchange, 200, PACT);
+        });
+
+        resolvePacts(PinnedVersion.class);
+        List<Pact> pacts = resolvePacts(PinnedVersion.class);
+
+        assertThat(broker.getRequests().size(), is(1));
+        assertThat(pacts.get(0).getNumericVersion(), is("1.0.1"));
+        assertThat(new String(Files.readAllBytes(cacheDirectory.resolve("bodies").resolve(Digests.sha256Hex(PACT) + ".json")), UTF_8), is(PACT));
+    }
+
+    @Test
+    void shouldRevalidateLatestVersionsWithTheETag() throws Exception {
+        broker.on(PACT_PATH + "latest", exchange -> {
+            exchange.getResponseHeaders().add("ETag", "\"abc\"");
+            exchange.getResponseHeaders().add("X-Pact-Consumer-Version", "1.0.7");
+            if ("\"abc\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                StubBroker.send(exchange, 304, "");
+            } else {
+                StubBroker.send(exchange, 200, PACT);
+            }
+        });
+
+        resolvePacts(LatestVersion.class);
+        List<Pact> pacts = resolvePacts(LatestVersion.class);
+
+        assertThat(broker.getRequests().size(), is(2));
+        assertThat(broker.getRequestHeaders().get(1).getFirst("If-None-Match"), is("\"abc\""));
+        assertThat(pacts.get(0).getNumericVersion(), is("1.0.7"));
+    }
+
+    @Test
+    void shouldFailFastOnACacheMissWhenOffline() {
+        System.setProperty(PactBrokerUrlSource.PACT_BROKER_OFFLINE_PROPERTY, "true");
+
+        assertThrows(IllegalStateException.class, () -> resolvePacts(LatestVersion.class));
+        assertThat(broker.getRequests().isEmpty(), is(true));
+    }
+
+    @Test
+    void shouldServeCachedLatestVersionsWhenOffline() throws Exception {
+        broker.respond(PACT_PATH + "latest", PACT, 0);
+        resolvePacts(LatestVersion.class);
+
+        System.setProperty(PactBrokerUrlSource.PACT_BROKER_OFFLINE_PROPERTY, "true");
+        List<Pact> pacts = resolvePacts(LatestVersion.class);
+
+        assertThat(pacts.size(), is(1));
+        assertThat(broker.getRequests().size(), is(1));
+    }
+
+    private List<Pact> resolvePacts(Class<?> definition) throws Exception {
+        PactDefinition pactDefinition = definition.getAnnotation(PactDefinition.class);
+        return new DefaultPactResolver().resolvePacts(pactDefinition, new GsonStringConverter(new GsonBuilder().create()));
+    }
+
+    @PactDefinition(provider = "example-provider", consumer = "example-consumer", pactVersions = "1.0.1")
+    private static class PinnedVersion {
+    }
+
+    @PactDefinition(provider = "example-provider", consumer = "example-consumer")
+    private static class LatestVersion {
+    }
+}
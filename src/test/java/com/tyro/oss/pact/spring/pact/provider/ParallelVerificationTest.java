@@ -0,0 +1,184 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.provider;
+
+import com.google.gson.GsonBuilder;
+import com.tyro.oss.pact.spring.pact.model.Pact;
+import com.tyro.oss.pact.spring.pact.provider.annotations.PactDefinition;
+import com.tyro.oss.pact.spring.pact.provider.annotations.ProviderState;
+import com.tyro.oss.pact.spring.util.GsonStringConverter;
+import com.tyro.oss.pact.spring.util.ObjectStringConverter;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+class ParallelVerificationTest {
+
+    private static final String PACT_FILE = "target/pact/parallel_verification_pacts.json";
+    private static final int WORKFLOWS = 8;
+    private static final int PARALLELISM = 3;
+
+    private static final AtomicInteger running = new AtomicInteger();
+    private static final AtomicInteger maxRunning = new AtomicInteger();
+    private static final AtomicInteger runningShelves = new AtomicInteger();
+    private static final AtomicInteger maxRunningShelves = new AtomicInteger();
+    private static final Set<MockMvc> mockMvcsInUse = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+    private static final AtomicBoolean mockMvcShared = new AtomicBoolean();
+
+    @BeforeAll
+    static void recordPact() throws Exception {
+        ObjectStringConverter converter = new GsonStringConverter(new GsonBuilder().create());
+        Pact pact = Pact.newPact(converter);
+        for (int i = 0; i < WORKFLOWS; i++) {
+            pact.getWorkflow("book " + i, emptyList()).addInteraction(interaction("/books/" + i, converter));
+            pact.getWorkflow("shelf " + i, singletonList(new Pact.ProviderState("withShelf", converter)))
+                    .addInteraction(interaction("/shelves/" + i, converter));
+        }
+        File pactFile = new File(PACT_FILE);
+        pactFile.getParentFile().mkdirs();
+        Pact.writePact(pact, pactFile, converter);
+    }
+
+    @Test
+    void shouldVerifyWorkflowsConcurrentlyWhenParallelExecutionIsEnabled() {
+        Map<String, String> configuration = new HashMap<>();
+        configuration.put("junit.jupiter.execution.parallel.enabled", "true");
+        configuration.put("junit.jupiter.execution.parallel.config.strategy", "fixed");
+        configuration.put("junit.jupiter.execution.parallel.config.fixed.parallelism", "8");
+
+        List<String> failures = JupiterEngineRun.execute(ParallelWorkflows.class, configuration).failures;
+
+        assertThat(failures, is(emptyList()));
+        assertThat(maxRunning.get(), greaterThan(1));
+        assertThat(maxRunning.get(), lessThanOrEqualTo(PARALLELISM));
+        assertThat(maxRunningShelves.get(), is(1));
+        assertThat(mockMvcShared.get(), is(false));
+    }
+
+    private static Pact.Interaction interaction(String uri, ObjectStringConverter converter) {
+        return new Pact.Interaction(
+                new Pact.InteractionRequest(HttpMethod.GET, uri, new HttpHeaders(), null),
+                new Pact.InteractionResponse(200, new HttpHeaders(), "{\"uri\":\"" + uri + "\"}", null),
+                converter);
+    }
+
+    private static void handleRequest(boolean onShelf) throws InterruptedException {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        if (onShelf) {
+            maxRunningShelves.accumulateAndGet(runningShelves.incrementAndGet(), Math::max);
+        }
+        try {
+            Thread.sleep(50);
+        } finally {
+            if (onShelf) {
+                runningShelves.decrementAndGet();
+            }
+            running.decrementAndGet();
+        }
+    }
+
+    @PactDefinition(
+            provider = "parallel-provider",
+            consumer = "parallel-consumer",
+            localPactFilePath = PACT_FILE,
+            parallelism = PARALLELISM
+    )
+    @ExtendWith(SpringExtension.class)
+    @ContextConfiguration(classes = ParallelWorkflowsConfig.class)
+    @WebAppConfiguration
+    static class ParallelWorkflows extends PactTest {
+
+        @Override
+        protected String getServletContextPathWithoutTrailingSlash() {
+            return "";
+        }
+
+        @Override
+        protected void performInteraction(PactTestContext context) throws Exception {
+            if (!mockMvcsInUse.add(mockMvc)) {
+                mockMvcShared.set(true);
+            }
+            try {
+                super.performInteraction(context);
+            } finally {
+                mockMvcsInUse.remove(mockMvc);
+            }
+        }
+
+        @ProviderState(resourceLocks = "shelf")
+        public void withShelf() {
+        }
+    }
+
+    @Configuration
+    @EnableWebMvc
+    static class ParallelWorkflowsConfig {
+
+        @Bean
+        public ParallelWorkflowsController parallelWorkflowsController() {
+            return new ParallelWorkflowsController();
+        }
+    }
+
+    @RestController
+    static class ParallelWorkflowsController {
+
+        @GetMapping("/books/{id}")
+        public Map<String, String> book(@PathVariable("id") String id) throws InterruptedException {
+            handleRequest(false);
+            return Collections.singletonMap("uri", "/books/" + id);
+        }
+
+        @GetMapping("/shelves/{id}")
+        public Map<String, String> shelf(@PathVariable("id") String id) throws InterruptedException {
+            handleRequest(true);
+            return Collections.singletonMap("uri", "/shelves/" + id);
+        }
+    }
+}
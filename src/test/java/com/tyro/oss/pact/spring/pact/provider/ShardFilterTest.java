@@ -0,0 +1,179 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.provider;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ShardFilterTest {
+
+    private static final int SHARDS = 3;
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void clearProperties() {
+        System.clearProperty(ShardFilter.SHARD_INDEX_PROPERTY);
+        System.clearProperty(ShardFilter.SHARD_COUNT_PROPERTY);
+        System.clearProperty(ShardFilter.SHARD_DURATIONS_PROPERTY);
+    }
+
+    @Test
+    void shouldSplitWorkflowsIntoDisjointShardsByHash() {
+        List<String> workflowKeys = workflowKeys(100);
+
+        List<Set<String>> shards = shards(workflowKeys, Collections.emptyMap());
+
+        assertDisjointAndComplete(shards, workflowKeys);
+        for (Set<String> shard : shards) {
+            assertThat(shard.size(), greaterThan(15));
+        }
+    }
+
+    @Test
+    void shouldAssignWorkflowsIndependentlyOfTheOtherWorkflows() {
+        List<String> workflowKeys = workflowKeys(20);
+        ShardFilter shardFilter = new ShardFilter(1, SHARDS, Collections.emptyMap());
+
+        Set<String> shard = shardFilter.selectShard(workflowKeys);
+
+        for (String workflowKey : workflowKeys) {
+            assertThat(shardFilter.selectShard(Collections.singleton(workflowKey)).contains(workflowKey), is(shard.contains(workflowKey)));
+        }
+    }
+
+    @Test
+    void shouldBalanceShardsByRecordedDurations() {
+        List<String> workflowKeys = workflowKeys(9);
+        Map<String, Long> durations = new HashMap<>();
+        long[] millis = {900, 800, 700, 300, 200, 100, 100, 100, 100};
+        for (int i = 0; i < millis.length; i++) {
+            durations.put(workflowKeys.get(i), millis[i]);
+        }
+
+        List<Set<String>> shards = shards(workflowKeys, durations);
+
+        assertDisjointAndComplete(shards, workflowKeys);
+        for (Set<String> shard : shards) {
+            assertThat(shard.stream().mapToLong(durations::get).sum(), is(1100L));
+        }
+    }
+
+    @Test
+    void shouldAssignWorkflowsByDurationIndependentlyOfTheOtherWorkflows() {
+        List<String> workflowKeys = workflowKeys(12);
+        Map<String, Long> durations = new HashMap<>();
+        for (int i = 0; i < 9; i++) {
+            durations.put(workflowKeys.get(i), 100L * (i + 1));
+        }
+
+        assertDisjointAndComplete(shards(workflowKeys, durations), workflowKeys);
+        for (int shardIndex = 0; shardIndex < SHARDS; shardIndex++) {
+            ShardFilter shardFilter = new ShardFilter(shardIndex, SHARDS, durations);
+            Set<String> shard = shardFilter.selectShard(workflowKeys);
+
+            for (String workflowKey : workflowKeys) {
+                assertThat(shardFilter.selectShard(Collections.singleton(workflowKey)).contains(workflowKey), is(shard.contains(workflowKey)));
+            }
+        }
+    }
+
+    @Test
+    void shouldReadDurationsFromTheTimingReportColumns() throws Exception {
+        Path durationsFile = directory.resolve("durations.csv");
+        Files.write(durationsFile, asList(
+                "consumer,version,workflow,requests,millis",
+                "example-consumer,latest,\"books, by author\",2,250",
+                "example-consumer,latest,shelf,1,40"), UTF_8);
+
+        Map<String, Long> durations = ShardFilter.readDurations(durationsFile.toFile());
+
+        assertThat(durations.get(ShardFilter.workflowKey("example-consumer", "latest", "books, by author")), is(250L));
+        assertThat(durations.get(ShardFilter.workflowKey("example-consumer", "latest", "shelf")), is(40L));
+    }
+
+    @Test
+    void shouldReplayEverythingWhenNotSharded() {
+        List<String> workflowKeys = workflowKeys(10);
+
+        ShardFilter shardFilter = ShardFilter.fromSystemProperties();
+
+        assertThat(shardFilter.isSharded(), is(false));
+        assertThat(shardFilter.selectShard(workflowKeys), is(new HashSet<>(workflowKeys)));
+    }
+
+    @Test
+    void shouldRejectAShardIndexWithoutACount() {
+        System.setProperty(ShardFilter.SHARD_INDEX_PROPERTY, "1");
+
+        assertThrows(IllegalStateException.class, ShardFilter::fromSystemProperties);
+    }
+
+    @Test
+    void shouldRejectAShardIndexOutsideTheShardCount() {
+        assertThrows(IllegalArgumentException.class, () -> new ShardFilter(SHARDS, SHARDS, Collections.emptyMap()));
+    }
+
+    private static List<Set<String>> shards(List<String> workflowKeys, Map<String, Long> durations) {
+        List<Set<String>> shards = new ArrayList<>();
+        for (int shardIndex = 0; shardIndex < SHARDS; shardIndex++) {
+            shards.add(new ShardFilter(shardIndex, SHARDS, durations).selectShard(workflowKeys));
+        }
+        return shards;
+    }
+
+    private static void assertDisjointAndComplete(List<Set<String>> shards, List<String> workflowKeys) {
+        Set<String> all = new HashSet<>();
+        int total = 0;
+        for (Set<String> shard : shards) {
+            all.addAll(shard);
+            total += shard.size();
+        }
+        assertThat(total, is(workflowKeys.size()));
+        assertThat(all, is(new HashSet<>(workflowKeys)));
+    }
+
+    private static List<String> workflowKeys(int count) {
+        List<String> workflowKeys = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            workflowKeys.add(ShardFilter.workflowKey("example-consumer", "latest", "workflow-" + i));
+        }
+        return workflowKeys;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.provider;
+
+import com.google.gson.GsonBuilder;
+import com.tyro.oss.pact.spring.pact.model.Pact;
+import com.tyro.oss.pact.spring.util.GsonStringConverter;
+import com.tyro.oss.pact.spring.util.ObjectStringConverter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+class TimingReportListenerTest {
+
+    private static final ObjectStringConverter CONVERTER = new GsonStringConverter(new GsonBuilder().create());
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldWriteTimingsThatCanBeReadAsShardDurations() throws Exception {
+        TimingReportListener.Report report = new TimingReportListener.Report();
+        TimingReportListener listener = new TimingReportListener(report);
+        PactTestContext context = context("consumer, with comma", "1.0.0", "workflow-1");
+        Pact.Interaction interaction = context.getWorkflow().getInteractions().get(0);
+
+        listener.providerStateSetUp(context, context.getWorkflow().getProviderStates().get(0), millis(5));
+        listener.interactionStepCompleted(context, interaction, InteractionStep.BUILD_REQUEST, millis(1), 10);
+        listener.interactionStepCompleted(context, interaction, InteractionStep.PERFORM_REQUEST, millis(20), 300);
+        listener.interactionStepCompleted(context, interaction, InteractionStep.ASSERT_BODY, millis(3), 300);
+        listener.workflowVerified(context, millis(42), null);
+        report.write(directory.toFile());
+
+        Map<String, Long> durations = ShardFilter.readDurations(directory.resolve(TimingReportListener.CSV_REPORT).toFile());
+        assertThat(durations, is(Collections.singletonMap(ShardFilter.workflowKey("consumer, with comma", "1.0.0", "workflow-1"), 42L)));
+
+        List<String> lines = Files.readAllLines(directory.resolve(TimingReportListener.CSV_REPORT), UTF_8);
+        assertThat(lines.get(0), is("consumer,version,workflow,millis,passed,interactions,providerStateMillis,buildRequestMillis,performRequestMillis,"
+                + "assertStatusMillis,assertHeadersMillis,assertBodyMillis,requestBytes,responseBytes"));
+        assertThat(lines.get(1), is("\"consumer, with comma\",1.0.0,workflow-1,42,true,1,5,1,20,0,0,3,10,300"));
+    }
+
+    @Test
+    void shouldReportFailedWorkflowsAndPactResolution() throws Exception {
+        TimingReportListener.Report report = new TimingReportListener.Report();
+        TimingReportListener listener = new TimingReportListener(report);
+
+        listener.pactsResolved(TimingReportListenerTest.class, Collections.emptyList(), millis(7));
+        listener.workflowVerified(context("consumer", "2.0.0", "workflow-2"), millis(9), new AssertionError("Status expected:<200> but was:<500>"));
+        report.write(directory.toFile());
+
+        List<String> lines = Files.readAllLines(directory.resolve(TimingReportListener.CSV_REPORT), UTF_8);
+        assertThat(lines.get(1), is("consumer,2.0.0,workflow-2,9,false,0,0,0,0,0,0,0,0,0"));
+        String json = new String(Files.readAllBytes(directory.resolve(TimingReportListener.JSON_REPORT)), UTF_8);
+        assertThat(json, containsString("\"testClass\": \"" + TimingReportListenerTest.class.getName() + "\""));
+        assertThat(json, containsString("\"workflow\": \"workflow-2\""));
+    }
+
+    @Test
+    void shouldKeepTheTimingsOfEveryForkWritingToTheSameDirectory() throws Exception {
+        TimingReportListener.Report firstFork = new TimingReportListener.Report();
+        TimingReportListener.Report secondFork = new TimingReportListener.Report();
+        new TimingReportListener(firstFork).workflowVerified(context("consumer", "1.0.0", "workflow-1"), millis(10), null);
+        new TimingReportListener(secondFork).workflowVerified(context("consumer", "1.0.0", "workflow-2"), millis(20), null);
+
+        firstFork.write(directory.toFile());
+        secondFork.write(directory.toFile());
+
+        Map<String, Long> durations = ShardFilter.readDurations(directory.resolve(TimingReportListener.CSV_REPORT).toFile());
+        assertThat(durations.get(ShardFilter.workflowKey("consumer", "1.0.0", "workflow-1")), is(10L));
+        assertThat(durations.get(ShardFilter.workflowKey("consumer", "1.0.0", "workflow-2")), is(20L));
+        assertThat(Files.readAllLines(directory.resolve(TimingReportListener.CSV_REPORT), UTF_8).size(), is(3));
+        String json = new String(Files.readAllBytes(directory.resolve(TimingReportListener.JSON_REPORT)), UTF_8);
+        assertThat(json, containsString("\"workflow\": \"workflow-1\""));
+        assertThat(json, containsString("\"workflow\": \"workflow-2\""));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.map(file -> file.getFileName().toString()).sorted().collect(toList()),
+                    is(asList(TimingReportListener.CSV_REPORT, TimingReportListener.JSON_REPORT)));
+        }
+    }
+
+    private static PactTestContext context(String consumer, String version, String workflowId) {
+        Pact.Workflow workflow = new Pact.Workflow(workflowId, singletonList(new Pact.ProviderState("a state", CONVERTER)), CONVERTER);
+        workflow.addInteraction(new Pact.Interaction(
+                new Pact.InteractionRequest(HttpMethod.POST, "/things", new HttpHeaders(), "{\"id\":1}"),
+                new Pact.InteractionResponse(200, new HttpHeaders(), "{}", null),
+                CONVERTER));
+        return new PactTestContext(consumer + "-" + version, consumer, version, workflow, CONVERTER, Collections.emptyMap(), false,
+                new WorkflowScheduler(1), Collections.emptySet(), true, new PactVerificationListener() {});
+    }
+
+    private static long millis(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
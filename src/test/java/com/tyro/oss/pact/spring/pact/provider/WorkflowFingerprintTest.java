@@ -0,0 +1,76 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.provider;
+
+import com.tyro.oss.pact.spring.pact.model.Pact;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+
+import static com.tyro.oss.pact.spring.pact.model.PactFixtures.JSON_CONVERTER;
+import static com.tyro.oss.pact.spring.pact.model.PactFixtures.interaction;
+import static com.tyro.oss.pact.spring.pact.model.PactFixtures.workflow;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+class WorkflowFingerprintTest {
+
+    @Test
+    void shouldMatchWorkflowsWithTheSameContentAndDifferentIds() {
+        WorkflowFingerprint first = new WorkflowFingerprint(workflow("first", "state", interaction("/books", "{\"title\":\"Dune\"}")));
+        WorkflowFingerprint second = new WorkflowFingerprint(workflow("second", "state", interaction("/books", "{\"title\":\"Dune\"}")));
+
+        assertThat(first, is(second));
+        assertThat(first.hashCode(), is(second.hashCode()));
+    }
+
+    @Test
+    void shouldNotMatchWorkflowsWithDifferentInteractions() {
+        WorkflowFingerprint first = new WorkflowFingerprint(workflow("first", "state", interaction("/books", "{\"title\":\"Dune\"}")));
+
+        assertThat(first, not(new WorkflowFingerprint(workflow("second", "state", interaction("/authors", "{\"title\":\"Dune\"}")))));
+        assertThat(first, not(new WorkflowFingerprint(workflow("third", "state", interaction("/books", "{\"title\":\"Emma\"}")))));
+    }
+
+    @Test
+    void shouldNotMatchWorkflowsWithDifferentProviderStates() {
+        WorkflowFingerprint first = new WorkflowFingerprint(workflow("first", "state", interaction("/books", "{}")));
+        WorkflowFingerprint second = new WorkflowFingerprint(workflow("second", "other state", interaction("/books", "{}")));
+
+        assertThat(first, not(second));
+    }
+
+    @Test
+    void shouldMatchLazilyParsedWorkflowsWithoutDeserialisingTheirInteractions() {
+        Pact pact = Pact.newPact(JSON_CONVERTER);
+        pact.getWorkFlows().put("first", workflow("first", "state", interaction("/books", "{}")));
+        pact.getWorkFlows().put("second", workflow("second", "state", interaction("/books", "{}")));
+        pact.getWorkFlows().put("third", workflow("third", "state", interaction("/authors", "{}")));
+
+        Pact parsed = Pact.parseLazily(new StringReader(JSON_CONVERTER.fromObject(pact)), JSON_CONVERTER);
+        WorkflowFingerprint first = new WorkflowFingerprint(parsed.getWorkFlows().get("first"));
+
+        assertThat(first, is(new WorkflowFingerprint(parsed.getWorkFlows().get("second"))));
+        assertThat(first, not(new WorkflowFingerprint(parsed.getWorkFlows().get("third"))));
+        assertThat(parsed.getWorkFlows().get("first").unparsedInteractions(), is(notNullValue()));
+    }
+}
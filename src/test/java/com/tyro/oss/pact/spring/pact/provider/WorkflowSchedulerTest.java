@@ -0,0 +1,107 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.provider;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+class WorkflowSchedulerTest {
+
+    private static final int WORKFLOWS = 32;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldRunWorkflowsConcurrentlyUpToTheParallelism() throws Exception {
+        runWorkflows(new WorkflowScheduler(3), emptySet(), false);
+
+        assertThat(maxRunning.get(), greaterThan(1));
+        assertThat(maxRunning.get(), lessThanOrEqualTo(3));
+    }
+
+    @Test
+    void shouldRunWorkflowsSharingAResourceLockOneAtATime() throws Exception {
+        runWorkflows(new WorkflowScheduler(8), singleton("bookshelf"), false);
+
+        assertThat(maxRunning.get(), is(1));
+    }
+
+    @Test
+    void shouldRunIsolatedWorkflowsAlone() throws Exception {
+        runWorkflows(new WorkflowScheduler(8), emptySet(), true);
+
+        assertThat(maxRunning.get(), is(1));
+    }
+
+    @Test
+    void shouldRunOneWorkflowAtATimeByDefault() throws Exception {
+        runWorkflows(new WorkflowScheduler(1), emptySet(), false);
+
+        assertThat(maxRunning.get(), is(1));
+    }
+
+    private void runWorkflows(WorkflowScheduler scheduler, Set<String> resourceLocks, boolean isolated) throws Exception {
+        CountDownLatch startingGun = new CountDownLatch(1);
+        List<Future<?>> workflows = new ArrayList<>();
+        for (int i = 0; i < WORKFLOWS; i++) {
+            workflows.add(executor.submit(() -> {
+                startingGun.await();
+                WorkflowScheduler.Permit permit = scheduler.acquire(resourceLocks, isolated);
+                try {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(5);
+                    running.decrementAndGet();
+                } finally {
+                    permit.release();
+                }
+                return null;
+            }));
+        }
+
+        startingGun.countDown();
+        for (Future<?> workflow : workflows) {
+            workflow.get(30, SECONDS);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.provider;
+
+import com.tyro.oss.pact.spring.pact.model.Pact;
+import com.tyro.oss.pact.spring.pact.provider.annotations.PactDefinition;
+import com.tyro.oss.pact.spring.pact.provider.annotations.WithPactResolver;
+import com.tyro.oss.pact.spring.util.ObjectStringConverter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.everyItem;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+
+class WorkflowSelectionTest {
+
+    private static final List<String> WORKFLOWS = asList(
+            "first Pact(null)", "second Pact(null)", "first Pact(null)", "third Pact(null)");
+
+    @AfterEach
+    void clearShardProperties() {
+        System.clearProperty(ShardFilter.SHARD_INDEX_PROPERTY);
+        System.clearProperty(ShardFilter.SHARD_COUNT_PROPERTY);
+    }
+
+    @Test
+    void shouldReplayTheWorkflowsOfEveryPactThatSharesADisplayVersion() {
+        JupiterEngineRun run = JupiterEngineRun.execute(UnversionedPacts.class, emptyMap());
+
+        assertThat(run.failures, is(emptyList()));
+        assertThat(run.skipped, is(emptyList()));
+        assertThat(run.succeeded, containsInAnyOrder(WORKFLOWS.toArray()));
+    }
+
+    @Test
+    void shouldReportTheWorkflowsOfOtherShardsAsSkipped() {
+        System.setProperty(ShardFilter.SHARD_COUNT_PROPERTY, "2");
+        List<String> replayed = new ArrayList<>();
+
+        for (int shard = 0; shard < 2; shard++) {
+            System.setProperty(ShardFilter.SHARD_INDEX_PROPERTY, String.valueOf(shard));
+            JupiterEngineRun run = JupiterEngineRun.execute(UnversionedPacts.class, emptyMap());
+
+            assertThat(run.failures, is(emptyList()));
+            assertThat(run.skipped, everyItem(containsString("is replayed by another pact shard")));
+            assertThat(run.succeeded.size() + run.skipped.size(), is(WORKFLOWS.size()));
+            replayed.addAll(run.succeeded);
+        }
+
+        assertThat(replayed, containsInAnyOrder(WORKFLOWS.toArray()));
+    }
+
+    private static Pact.Interaction interaction(String uri, ObjectStringConverter converter) {
+        return new Pact.Interaction(
+                new Pact.InteractionRequest(HttpMethod.GET, uri, new HttpHeaders(), null),
+                new Pact.InteractionResponse(200, new HttpHeaders(), "{\"uri\":\"" + uri + "\"}", null),
+                converter);
+    }
+
+    public static class UnversionedPactResolver implements PactResolver {
+
+        @Override
+        public List<Pact> resolvePacts(PactDefinition pactDefinition, ObjectStringConverter jsonConverter) {
+            Pact pact = Pact.newPact(jsonConverter);
+            pact.getWorkflow("first", emptyList()).addInteraction(interaction("/items/1", jsonConverter));
+            pact.getWorkflow("second", emptyList()).addInteraction(interaction("/items/2", jsonConverter));
+
+            Pact otherPact = Pact.newPact(jsonConverter);
+            otherPact.getWorkflow("first", emptyList()).addInteraction(interaction("/items/3", jsonConverter));
+            otherPact.getWorkflow("third", emptyList()).addInteraction(interaction("/items/4", jsonConverter));
+            return asList(pact, otherPact);
+        }
+    }
+
+    @PactDefinition(provider = "selection-provider", consumer = "selection-consumer")
+    @WithPactResolver(UnversionedPactResolver.class)
+    @ExtendWith(SpringExtension.class)
+    @ContextConfiguration(classes = UnversionedPactsConfig.class)
+    @WebAppConfiguration
+    static class UnversionedPacts extends PactTest {
+
+        @Override
+        protected String getServletContextPathWithoutTrailingSlash() {
+            return "";
+        }
+    }
+
+    @Configuration
+    @EnableWebMvc
+    static class UnversionedPactsConfig {
+
+        @Bean
+        public ItemController itemController() {
+            return new ItemController();
+        }
+    }
+
+    @RestController
+    static class ItemController {
+
+        @GetMapping("/items/{id}")
+        public Map<String, String> item(@PathVariable("id") String id) {
+            return Collections.singletonMap("uri", "/items/" + id);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.pact.stub;
+
+import com.google.gson.GsonBuilder;
+import com.tyro.oss.pact.spring.pact.model.Pact;
+import com.tyro.oss.pact.spring.util.GsonStringConverter;
+import com.tyro.oss.pact.spring.util.ObjectStringConverter;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PactStubServerTest {
+
+    private static final int THREADS = 8;
+    private static final int REQUESTS_PER_THREAD = 500;
+
+    private final ObjectStringConverter converter = new GsonStringConverter(new GsonBuilder().create());
+
+    @TempDir
+    Path tempDir;
+
+    private PactStubServer server;
+
+    @AfterEach
+    void stopServer() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void shouldServeRecordedResponsesFromPactFiles() throws Exception {
+        server = PactStubServer.start(0, converter, writePact());
+        RestTemplate restTemplate = restTemplate();
+
+        ResponseEntity<String> thing = restTemplate.getForEntity("/things/1", String.class);
+        assertThat(thing.getStatusCode(), is(HttpStatus.OK));
+        assertThat(thing.getBody(), is("{\"id\":1}"));
+        assertThat(thing.getHeaders().getContentType(), is(MediaType.APPLICATION_JSON));
+
+        assertThat(restTemplate.getForObject("/things?colour=red", String.class), is("[\"red\"]"));
+        assertThat(restTemplate.exchange("/things/1", HttpMethod.DELETE, null, String.class).getStatusCode(), is(HttpStatus.NO_CONTENT));
+        assertThat(server.getRouteCount(), is(5));
+    }
+
+    @Test
+    void shouldTellRequestsToTheSamePathApartByTheirBodies() throws Exception {
+        server = PactStubServer.start(0, converter, writePact());
+        RestTemplate restTemplate = restTemplate();
+
+        assertThat(restTemplate.postForObject("/things", json("{ \"name\": \"second\", \"id\": 2 }"), String.class), is("created second"));
+        assertThat(restTemplate.postForObject("/things", json("{\"id\":1,\"name\":\"first\"}"), String.class), is("created first"));
+
+        HttpClientErrorException notFound = assertThrows(HttpClientErrorException.class,
+                () -> restTemplate.postForObject("/things", json("{\"id\":3}"), String.class));
+        assertThat(notFound.getStatusCode(), is(HttpStatus.NOT_FOUND));
+        assertThat(notFound.getResponseBodyAsString(), containsString("No recorded interaction for POST /things"));
+    }
+
+    @Test
+    void shouldAnswerPipelinedRequestsInOrder() throws Exception {
+        server = PactStubServer.start(0, converter, writePact());
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET /things/1 HTTP/1.1\r\nHost: localhost\r\n\r\n"
+                    + "GET /things?colour=red HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n").getBytes(ISO_8859_1));
+            out.flush();
+
+            InputStream in = socket.getInputStream();
+            String responses = IOUtils.toString(in, ISO_8859_1);
+
+            assertThat(responses.indexOf("{\"id\":1}") < responses.indexOf("[\"red\"]"), is(true));
+            assertThat(responses.split("HTTP/1.1 200 OK").length, is(3));
+        }
+    }
+
+    @Test
+    void shouldCountHitsPerRouteFromConcurrentClients() throws Exception {
+        server = PactStubServer.start(0, converter, writePact());
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            List<Future<?>> clients = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                clients.add(executor.submit(() -> {
+                    RestTemplate restTemplate = restTemplate();
+                    for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                        assertThat(restTemplate.getForObject("/things/1", String.class), is("{\"id\":1}"));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> client : clients) {
+                client.get(60, SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThrows(HttpClientErrorException.class, () -> restTemplate().getForObject("/nothing", String.class));
+
+        assertThat(server.getHitCounts().get("GET /things/1"), is((long) THREADS * REQUESTS_PER_THREAD));
+        assertThat(server.getHitCounts().get("GET /things?colour=red"), is(0L));
+        assertThat(server.getHitCounts().get(RouteIndex.UNMATCHED), is(1L));
+    }
+
+    private File writePact() throws Exception {
+        Pact pact = Pact.newPact(converter);
+        Pact.Workflow workflow = pact.getWorkflow("things", emptyList());
+        workflow.addInteraction(interaction(HttpMethod.GET, "/things/1", null, 200, "{\"id\":1}"));
+        workflow.addInteraction(interaction(HttpMethod.GET, "/things?colour=red", null, 200, "[\"red\"]"));
+        workflow.addInteraction(interaction(HttpMethod.POST, "/things", "{\"id\":1,\"name\":\"first\"}", 201, "created first"));
+        workflow.addInteraction(interaction(HttpMethod.POST, "/things", "{\"id\":2,\"name\":\"second\"}", 201, "created second"));
+        workflow.addInteraction(interaction(HttpMethod.DELETE, "/things/1", null, 204, null));
+        workflow.addInteraction(interaction(HttpMethod.GET, "/things/1", null, 200, "{\"id\":\"recorded again\"}"));
+
+        File pactFile = tempDir.resolve("things_pacts.json").toFile();
+        Pact.writePact(pact, pactFile, converter);
+        return pactFile;
+    }
+
+    private Pact.Interaction interaction(HttpMethod method, String uri, String requestBody, int status, String responseBody) {
+        HttpHeaders responseHeaders = new HttpHeaders();
+        if (responseBody != null) {
+            responseHeaders.setContentType(MediaType.APPLICATION_JSON);
+        }
+        return new Pact.Interaction(
+                new Pact.InteractionRequest(method, uri, new HttpHeaders(), requestBody),
+                new Pact.InteractionResponse(status, responseHeaders, responseBody, null),
+                converter);
+    }
+
+    private RestTemplate restTemplate() {
+        RestTemplate restTemplate = new RestTemplate(new SimpleClientHttpRequestFactory());
+        restTemplate.setUriTemplateHandler(new DefaultUriBuilderFactory("http://localhost:" + server.getPort()));
+        return restTemplate;
+    }
+
+    private static HttpEntity<String> json(String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new HttpEntity<>(body, headers);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.util;
+
+import com.networknt.schema.JsonSchema;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+class JsonSchemaCacheTest {
+
+    private static final String INTEGER_SCHEMA = "{\"type\": \"object\", \"properties\": {\"integer\": {\"type\": \"integer\"}}}";
+    private static final String STRING_SCHEMA = "{\"type\": \"object\", \"properties\": {\"string\": {\"type\": \"string\"}}}";
+
+    @Test
+    void shouldCompileAnIdenticalSchemaOnlyOnce() {
+        JsonSchemaCache cache = new JsonSchemaCache(8);
+
+        JsonSchema first = cache.getSchema(INTEGER_SCHEMA);
+        JsonSchema second = cache.getSchema(new String(INTEGER_SCHEMA));
+
+        assertThat(second, is(sameInstance(first)));
+        assertThat(cache.getMisses(), is(1L));
+        assertThat(cache.getHits(), is(1L));
+    }
+
+    @Test
+    void shouldEvictTheLeastRecentlyUsedSchemaWhenFull() {
+        JsonSchemaCache cache = new JsonSchemaCache(1);
+
+        JsonSchema integerSchema = cache.getSchema(INTEGER_SCHEMA);
+        cache.getSchema(STRING_SCHEMA);
+
+        assertThat(cache.size(), is(1));
+        assertThat(cache.getSchema(INTEGER_SCHEMA), is(not(sameInstance(integerSchema))));
+        assertThat(cache.getMisses(), is(3L));
+    }
+}
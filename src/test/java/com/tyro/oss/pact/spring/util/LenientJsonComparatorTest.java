@@ -0,0 +1,83 @@
+/*
+ * #%L
+ * pact-spring-mvc
+ * %%
+ * Copyright (C) 2016 - 2020 Tyro Payments Limited
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.tyro.oss.pact.spring.util;
+
+import org.junit.jupiter.api.Test;
+import org.skyscreamer.jsonassert.JSONCompare;
+import org.skyscreamer.jsonassert.JSONCompareMode;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+class LenientJsonComparatorTest {
+
+    private static final String[][] DOCUMENTS = {
+            {"{\"integer\":0}", "{\"integer\":0}"},
+            {"{\"integer\":0}", "{\"integer\":1}"},
+            {"{\"integer\":0}", "{\"integer\":0,\"extra\":true}"},
+            {"{\"integer\":0,\"missing\":null}", "{\"integer\":0}"},
+            {"{\"nullable\":null}", "{\"nullable\":null}"},
+            {"{\"number\":1}", "{\"number\":1.0}"},
+            {"{\"number\":1}", "{\"number\":\"1\"}"},
+            {"{\"list\":[1,2,3]}", "{\"list\":[3,1,2]}"},
+            {"{\"list\":[1,2,2]}", "{\"list\":[1,1,2]}"},
+            {"{\"list\":[1,2]}", "{\"list\":[1,2,3]}"},
+            {"{\"list\":[{\"a\":1},{\"a\":2}]}", "{\"list\":[{\"a\":2,\"b\":0},{\"a\":1}]}"},
+            {"{\"list\":[{\"a\":1},{\"a\":2}]}", "{\"list\":[{\"a\":2},{\"a\":3}]}"},
+            {"{\"nested\":{\"list\":[[1,2],[3]]}}", "{\"nested\":{\"list\":[[3],[2,1]]}}"},
+            {"{\"object\":{}}", "{\"object\":[]}"},
+            {"[{\"name\":\"a\"},{\"name\":\"b\"}]", "[{\"name\":\"b\"},{\"name\":\"a\"}]"},
+            {"[{\"a\":1,\"b\":2},{\"a\":1}]", "[{\"a\":1,\"c\":3},{\"a\":1,\"b\":2}]"},
+            {"[{\"a\":1},{\"a\":1,\"b\":2}]", "[{\"a\":1,\"b\":2},{\"a\":1,\"c\":3}]"},
+            {"[[1],[1,2]]", "[[2,1],[1]]"},
+    };
+
+    @Test
+    void shouldAgreeWithJsonAssertInLenientMode() throws Exception {
+        for (String[] documents : DOCUMENTS) {
+            boolean jsonAssertPassed = JSONCompare.compareJSON(documents[0], documents[1], JSONCompareMode.LENIENT).passed();
+            String difference = LenientJsonComparator.findFirstDifference(documents[0], documents[1]);
+
+            assertThat(documents[0] + " against " + documents[1] + " gave " + difference, difference == null, is(jsonAssertPassed));
+        }
+    }
+
+    @Test
+    void shouldReportThePathOfTheFirstDifference() {
+        String difference = LenientJsonComparator.findFirstDifference(
+                "{\"books\":[{\"name\":\"Quiet\",\"read\":false}]}",
+                "{\"books\":[{\"name\":\"Quiet\",\"read\":true}]}");
+
+        assertThat(difference, is("$.books[0].read: expected false but was true, and no other element matches"));
+    }
+
+    @Test
+    void shouldReportMissingFields() {
+        assertThat(LenientJsonComparator.findFirstDifference("{\"a\":{\"b\":1}}", "{\"a\":{}}"), is("$.a.b: expected 1 but none found"));
+    }
+
+    @Test
+    void shouldMatchPrimitiveDocuments() {
+        assertThat(LenientJsonComparator.findFirstDifference("true", "true"), is(nullValue()));
+        assertThat(LenientJsonComparator.findFirstDifference("\"Blah\"", "\"Blah\""), is(nullValue()));
+        assertThat(LenientJsonComparator.findFirstDifference("1", "2"), is("$: expected 1 but was 2"));
+    }
+}